@@ -26,6 +26,8 @@ SET timezone = 'UTC';
 CREATE EXTENSION IF NOT EXISTS "uuid-ossp";
 
 -- Drop existing tables and constraints (in reverse dependency order)
+DROP TABLE IF EXISTS audit_events CASCADE;
+DROP TABLE IF EXISTS http_sessions CASCADE;
 DROP TABLE IF EXISTS users_roles CASCADE;
 DROP TABLE IF EXISTS users CASCADE;
 DROP TABLE IF EXISTS roles CASCADE;
@@ -74,18 +76,26 @@ COMMENT ON COLUMN roles.updated_at IS 'Timestamp when the role was last updated'
 -- =============================================================================
 CREATE TABLE users (
     id BIGSERIAL PRIMARY KEY,
-    username VARCHAR(50) NOT NULL UNIQUE,
+    username VARCHAR(50) NOT NULL,
     password VARCHAR(80) NOT NULL,
     enabled BOOLEAN NOT NULL DEFAULT true,
     first_name VARCHAR(64) NOT NULL,
     last_name VARCHAR(64) NOT NULL,
-    email VARCHAR(64) NOT NULL UNIQUE,
+    email VARCHAR(64) NOT NULL,
+
+    -- Case-insensitive lookup keys, lower(trim(...)) of username and email,
+    -- maintained by the application (User#normalize)
+    username_normalized VARCHAR(50) NOT NULL,
+    email_normalized VARCHAR(64) NOT NULL,
     
     -- Audit fields
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     
-    -- Constraints
+    -- Constraints (unique constraint names are matched by the application
+    -- to report duplicate usernames and emails)
+    CONSTRAINT uk_users_username UNIQUE (username_normalized),
+    CONSTRAINT uk_users_email UNIQUE (email_normalized),
     CONSTRAINT chk_username_length CHECK (LENGTH(TRIM(username)) BETWEEN 3 AND 50),
     CONSTRAINT chk_username_format CHECK (username ~ '^[a-zA-Z0-9._-]+$'),
     CONSTRAINT chk_password_not_empty CHECK (LENGTH(TRIM(password)) > 0),
@@ -96,7 +106,6 @@ CREATE TABLE users (
 
 -- Indexes for users table (matching JPA entity annotations)
 CREATE INDEX idx_user_username ON users(username);
-CREATE INDEX idx_user_email ON users(email);
 CREATE INDEX idx_user_enabled ON users(enabled);
 CREATE INDEX idx_user_created_at ON users(created_at);
 CREATE INDEX idx_user_full_name ON users(first_name, last_name);
@@ -110,6 +119,8 @@ COMMENT ON COLUMN users.enabled IS 'Account status - true if active, false if di
 COMMENT ON COLUMN users.first_name IS 'User first name';
 COMMENT ON COLUMN users.last_name IS 'User last name';
 COMMENT ON COLUMN users.email IS 'Unique email address';
+COMMENT ON COLUMN users.username_normalized IS 'Trimmed, lower-cased username used for lookups and uniqueness';
+COMMENT ON COLUMN users.email_normalized IS 'Trimmed, lower-cased email used for lookups and uniqueness';
 COMMENT ON COLUMN users.created_at IS 'Account creation timestamp';
 COMMENT ON COLUMN users.updated_at IS 'Last modification timestamp';
 
@@ -149,6 +160,56 @@ COMMENT ON COLUMN users_roles.role_id IS 'Reference to roles.id';
 COMMENT ON COLUMN users_roles.assigned_at IS 'When the role was assigned to the user';
 COMMENT ON COLUMN users_roles.assigned_by IS 'Who assigned the role (optional)';
 
+-- =============================================================================
+-- Table: http_sessions
+-- Purpose: HTTP sessions shared by all nodes when app.session.store=jdbc
+-- =============================================================================
+CREATE TABLE http_sessions (
+    session_id VARCHAR(36) NOT NULL,
+    revision BIGINT NOT NULL,
+    principal_name VARCHAR(100),
+    creation_time BIGINT NOT NULL,
+    last_access_time BIGINT NOT NULL,
+    max_inactive_seconds INT NOT NULL,
+    expiry_time BIGINT NOT NULL,
+    attributes BYTEA NOT NULL,
+
+    CONSTRAINT pk_http_sessions PRIMARY KEY (session_id)
+);
+
+CREATE INDEX idx_http_sessions_principal_name ON http_sessions(principal_name);
+CREATE INDEX idx_http_sessions_expiry_time ON http_sessions(expiry_time);
+
+COMMENT ON TABLE http_sessions IS 'HTTP sessions shared by all application nodes (app.session.store=jdbc)';
+COMMENT ON COLUMN http_sessions.revision IS 'Random value replaced on every attribute write; nodes compare it to their near-cache';
+COMMENT ON COLUMN http_sessions.principal_name IS 'Logged-in username, for the cluster-wide concurrent session limit';
+COMMENT ON COLUMN http_sessions.expiry_time IS 'last_access_time + max_inactive_seconds, epoch milliseconds';
+COMMENT ON COLUMN http_sessions.attributes IS 'Java-serialized session attributes';
+
+-- =============================================================================
+-- Table: audit_events
+-- Purpose: login and registration audit trail, written in batches by the application
+-- =============================================================================
+CREATE TABLE audit_events (
+    id BIGINT GENERATED ALWAYS AS IDENTITY,
+    occurred_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    principal_name VARCHAR(100),
+    remote_address VARCHAR(45),
+    detail VARCHAR(255),
+
+    CONSTRAINT pk_audit_events PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_audit_events_principal_time ON audit_events(principal_name, occurred_at);
+CREATE INDEX idx_audit_events_occurred_at ON audit_events(occurred_at);
+
+COMMENT ON TABLE audit_events IS 'Login and registration audit trail, written in batches by the application';
+COMMENT ON COLUMN audit_events.event_type IS 'AUTHENTICATION_SUCCESS, AUTHENTICATION_FAILURE or USER_REGISTERED';
+COMMENT ON COLUMN audit_events.principal_name IS 'Username as presented; not necessarily an existing account';
+COMMENT ON COLUMN audit_events.remote_address IS 'Client address of the login request, if known';
+COMMENT ON COLUMN audit_events.detail IS 'Failure exception type, or other event detail';
+
 -- =============================================================================
 -- TRIGGERS FOR AUTOMATIC TIMESTAMP UPDATES
 -- =============================================================================
@@ -188,13 +249,15 @@ INSERT INTO roles (name) VALUES
 -- Insert sample users with BCrypt encrypted passwords
 -- Note: All passwords are "password123" encrypted with BCrypt
 -- You should change these passwords in production!
-INSERT INTO users (username, password, enabled, first_name, last_name, email) VALUES 
+INSERT INTO users (username, password, enabled, first_name, last_name, email, username_normalized, email_normalized) VALUES 
     (
         'admin',
         '$2a$12$LQv3c1yqBWVHxkd0LHAkCOYz6TtxMQJqhN8/LewdBPj8w8W7K6N.C',
         true,
         'System',
         'Administrator',
+        'admin@usermgmt.com',
+        'admin',
         'admin@usermgmt.com'
     ),
     (
@@ -203,6 +266,8 @@ INSERT INTO users (username, password, enabled, first_name, last_name, email) VA
         true,
         'Manager',
         'User',
+        'manager@usermgmt.com',
+        'manager',
         'manager@usermgmt.com'
     ),
     (
@@ -211,6 +276,8 @@ INSERT INTO users (username, password, enabled, first_name, last_name, email) VA
         true,
         'Employee',
         'User',
+        'employee@usermgmt.com',
+        'employee',
         'employee@usermgmt.com'
     ),
     (
@@ -219,6 +286,8 @@ INSERT INTO users (username, password, enabled, first_name, last_name, email) VA
         true,
         'John',
         'Doe',
+        'john.doe@usermgmt.com',
+        'john.doe',
         'john.doe@usermgmt.com'
     );
 
@@ -243,6 +312,10 @@ INSERT INTO users_roles (user_id, role_id, assigned_by) VALUES
 INSERT INTO users_roles (user_id, role_id, assigned_by) VALUES 
     (4, 1, 'SYSTEM'); -- john.doe -> ROLE_EMPLOYEE
 
+-- Hibernate allocates user ids in blocks of 50 (pooled optimizer); the sequence
+-- increment must match allocationSize on User.id
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+
 -- =============================================================================
 -- UTILITY VIEWS FOR COMMON QUERIES
 -- =============================================================================
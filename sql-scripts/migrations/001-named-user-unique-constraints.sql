@@ -0,0 +1,13 @@
+-- =============================================================================
+-- Migration 001: name the unique constraints on users.username and users.email
+-- =============================================================================
+-- Registration no longer checks for duplicates before inserting; it relies on
+-- these constraints and maps a violation back to the offending column by its
+-- constraint name (uk_users_username / uk_users_email).
+--
+-- Apply to databases created with fixed-postgresql-schema.sql before this change:
+--   psql -U postgres -d user_management_system -f sql-scripts/migrations/001-named-user-unique-constraints.sql
+-- =============================================================================
+
+ALTER TABLE users RENAME CONSTRAINT users_username_key TO uk_users_username;
+ALTER TABLE users RENAME CONSTRAINT users_email_key TO uk_users_email;
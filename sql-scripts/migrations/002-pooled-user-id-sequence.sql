@@ -0,0 +1,16 @@
+-- Migration 002: pooled id allocation for users
+-- =============================================================================
+-- User ids are now generated from users_id_seq with Hibernate's pooled
+-- optimizer (allocationSize = 50) instead of IDENTITY, so that inserts can be
+-- JDBC-batched. The pooled optimizer treats each nextval as the top of a block
+-- of 50 ids, which only works if the sequence increments by the same amount.
+-- Column defaults (nextval) keep working for manual inserts; they simply skip
+-- ahead in steps of 50.
+--
+-- roles_id_seq is used with allocationSize = 1 and needs no change.
+--
+-- Apply to databases created with fixed-postgresql-schema.sql before this change:
+--   psql -U postgres -d user_management_system -f sql-scripts/migrations/002-pooled-user-id-sequence.sql
+-- =============================================================================
+
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
@@ -0,0 +1,45 @@
+-- Migration 003: case-insensitive username and email lookups
+-- =============================================================================
+-- Adds username_normalized and email_normalized (lower(trim(...)) of the raw
+-- columns). The application keeps them up to date on every insert and update,
+-- and all lookups and the two unique constraints now use them, so
+-- "Alice@Example.com" finds "alice@example.com" through a unique index.
+--
+-- The constraint names uk_users_username / uk_users_email are kept; the
+-- application uses them to tell which column a duplicate insert violated.
+--
+-- Before applying, check for accounts that only differ in case; they must be
+-- merged or renamed first or the new unique constraints cannot be created:
+--   SELECT lower(trim(username)), count(*) FROM users GROUP BY 1 HAVING count(*) > 1;
+--   SELECT lower(trim(email)), count(*) FROM users GROUP BY 1 HAVING count(*) > 1;
+--
+-- Apply to databases created with fixed-postgresql-schema.sql before this change:
+--   psql -U postgres -d user_management_system -f sql-scripts/migrations/003-normalized-user-lookup-keys.sql
+-- =============================================================================
+
+BEGIN;
+
+ALTER TABLE users ADD COLUMN username_normalized VARCHAR(50);
+ALTER TABLE users ADD COLUMN email_normalized VARCHAR(64);
+
+UPDATE users
+   SET username_normalized = lower(trim(username)),
+       email_normalized = lower(trim(email));
+
+ALTER TABLE users ALTER COLUMN username_normalized SET NOT NULL;
+ALTER TABLE users ALTER COLUMN email_normalized SET NOT NULL;
+
+-- uniqueness moves to the normalized columns, which also implies it for the raw ones
+ALTER TABLE users DROP CONSTRAINT uk_users_username;
+ALTER TABLE users DROP CONSTRAINT uk_users_email;
+ALTER TABLE users ADD CONSTRAINT uk_users_username UNIQUE (username_normalized);
+ALTER TABLE users ADD CONSTRAINT uk_users_email UNIQUE (email_normalized);
+
+-- email lookups now go through uk_users_email; idx_user_username stays for
+-- the username-ordered keyset listing
+DROP INDEX IF EXISTS idx_user_email;
+
+COMMENT ON COLUMN users.username_normalized IS 'Trimmed, lower-cased username used for lookups and uniqueness';
+COMMENT ON COLUMN users.email_normalized IS 'Trimmed, lower-cased email used for lookups and uniqueness';
+
+COMMIT;
@@ -0,0 +1,40 @@
+-- Migration 004: shared HTTP session store
+-- =============================================================================
+-- Creates http_sessions, used when the application runs with
+-- app.session.store=jdbc. Sessions then live in the database instead of one
+-- node's memory, so several nodes can serve requests without sticky sessions
+-- and maximumSessions(1) holds across the cluster.
+--
+-- Times are epoch milliseconds. Rows are written on login and on attribute
+-- changes; last_access_time and expiry_time are updated in batches, and
+-- expired rows are deleted by the application.
+--
+-- Apply to databases created with fixed-postgresql-schema.sql before this change:
+--   psql -U postgres -d user_management_system -f sql-scripts/migrations/004-http-sessions.sql
+-- =============================================================================
+
+BEGIN;
+
+CREATE TABLE http_sessions (
+    session_id VARCHAR(36) NOT NULL,
+    revision BIGINT NOT NULL,
+    principal_name VARCHAR(100),
+    creation_time BIGINT NOT NULL,
+    last_access_time BIGINT NOT NULL,
+    max_inactive_seconds INT NOT NULL,
+    expiry_time BIGINT NOT NULL,
+    attributes BYTEA NOT NULL,
+
+    CONSTRAINT pk_http_sessions PRIMARY KEY (session_id)
+);
+
+CREATE INDEX idx_http_sessions_principal_name ON http_sessions(principal_name);
+CREATE INDEX idx_http_sessions_expiry_time ON http_sessions(expiry_time);
+
+COMMENT ON TABLE http_sessions IS 'HTTP sessions shared by all application nodes (app.session.store=jdbc)';
+COMMENT ON COLUMN http_sessions.revision IS 'Random value replaced on every attribute write; nodes compare it to their near-cache';
+COMMENT ON COLUMN http_sessions.principal_name IS 'Logged-in username, for the cluster-wide concurrent session limit';
+COMMENT ON COLUMN http_sessions.expiry_time IS 'last_access_time + max_inactive_seconds, epoch milliseconds';
+COMMENT ON COLUMN http_sessions.attributes IS 'Java-serialized session attributes';
+
+COMMIT;
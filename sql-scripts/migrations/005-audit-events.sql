@@ -0,0 +1,37 @@
+-- Migration 005: audit trail
+-- =============================================================================
+-- Creates audit_events, which records every login success, login failure and
+-- registration (app.audit.enabled=true). Rows are inserted in JDBC batches by a
+-- background thread of the application; nothing updates or deletes them.
+--
+-- event_type is AUTHENTICATION_SUCCESS, AUTHENTICATION_FAILURE or USER_REGISTERED.
+-- principal_name is the username as typed, so failed logins may name accounts
+-- that do not exist.
+--
+-- Apply to databases created with fixed-postgresql-schema.sql before this change:
+--   psql -U postgres -d user_management_system -f sql-scripts/migrations/005-audit-events.sql
+-- =============================================================================
+
+BEGIN;
+
+CREATE TABLE audit_events (
+    id BIGINT GENERATED ALWAYS AS IDENTITY,
+    occurred_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    principal_name VARCHAR(100),
+    remote_address VARCHAR(45),
+    detail VARCHAR(255),
+
+    CONSTRAINT pk_audit_events PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_audit_events_principal_time ON audit_events(principal_name, occurred_at);
+CREATE INDEX idx_audit_events_occurred_at ON audit_events(occurred_at);
+
+COMMENT ON TABLE audit_events IS 'Login and registration audit trail, written in batches by the application';
+COMMENT ON COLUMN audit_events.event_type IS 'AUTHENTICATION_SUCCESS, AUTHENTICATION_FAILURE or USER_REGISTERED';
+COMMENT ON COLUMN audit_events.principal_name IS 'Username as presented; not necessarily an existing account';
+COMMENT ON COLUMN audit_events.remote_address IS 'Client address of the login request, if known';
+COMMENT ON COLUMN audit_events.detail IS 'Failure exception type, or other event detail';
+
+COMMIT;
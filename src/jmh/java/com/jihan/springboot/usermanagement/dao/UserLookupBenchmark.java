@@ -0,0 +1,109 @@
+package com.jihan.springboot.usermanagement.dao;
+
+import java.util.concurrent.TimeUnit;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.NoResultException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.jihan.springboot.usermanagement.UserManagementSystemApplication;
+import com.jihan.springboot.usermanagement.dto.UserRegistrationDto;
+import com.jihan.springboot.usermanagement.entity.User;
+import com.jihan.springboot.usermanagement.service.UserService;
+
+/**
+ * Miss-heavy username lookups, before and after the switch from inline JPQL
+ * with a thrown NoResultException to named queries returning Optional. With the
+ * default hitEvery of 10, nine in ten lookups miss, as during failed-login floods.
+ *
+ * Runs on the embedded H2 database of the test profile, so it measures the
+ * Hibernate and exception cost only; the PgJDBC statement cache is not involved.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserLookupBenchmark {
+
+	private static final String HIT = "jmhlookup";
+
+	@Param("10")
+	private int hitEvery;
+
+	private ConfigurableApplicationContext context;
+
+	private UserDao userDao;
+
+	private EntityManager entityManager;
+
+	private String[] userNames;
+
+	private int next;
+
+	@Setup
+	public void startApplication() {
+		context = new SpringApplicationBuilder(UserManagementSystemApplication.class)
+				.profiles("test")
+				.properties("server.port=0", "logging.level.root=WARN")
+				.run();
+		userDao = context.getBean(UserDao.class);
+		entityManager = context.getBean(EntityManager.class);
+
+		context.getBean(UserService.class)
+				.save(new UserRegistrationDto(HIT, "secret123", "Jmh", "Lookup", HIT + "@example.com"));
+
+		// a fixed rotation, so both variants see the same names in the same order
+		userNames = new String[hitEvery * 100];
+		for (int i = 0; i < userNames.length; i++) {
+			userNames[i] = i % hitEvery == 0 ? HIT : "jmhmiss" + i;
+		}
+	}
+
+	@TearDown
+	public void stopApplication() {
+		context.close();
+	}
+
+	@Benchmark
+	public User namedOptionalLookup() {
+		return userDao.findByUserName(nextUserName()).orElse(null);
+	}
+
+	/**
+	 * The lookup as it was written before: a JPQL string per call, and a
+	 * NoResultException with a full stack trace for every unknown username
+	 */
+	@Benchmark
+	public User inlineThrowingLookup() {
+		try {
+			return entityManager.createQuery(
+					"from User where normalizedUserName=:uName and enabled=true", User.class)
+				.setParameter("uName", User.normalize(nextUserName()))
+				.getSingleResult();
+		} catch (NoResultException e) {
+			return null;
+		}
+	}
+
+	private String nextUserName() {
+		String userName = userNames[next];
+		next = next + 1 == userNames.length ? 0 : next + 1;
+		return userName;
+	}
+}
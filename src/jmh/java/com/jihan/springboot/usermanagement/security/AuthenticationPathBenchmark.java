@@ -0,0 +1,86 @@
+package com.jihan.springboot.usermanagement.security;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+
+import com.jihan.springboot.usermanagement.UserManagementSystemApplication;
+import com.jihan.springboot.usermanagement.dao.UserDao;
+import com.jihan.springboot.usermanagement.dto.UserRegistrationDto;
+import com.jihan.springboot.usermanagement.entity.User;
+import com.jihan.springboot.usermanagement.service.UserService;
+
+/**
+ * The login path in the real application context, on the embedded H2 database
+ * of the test profile: DAO lookups that hit and miss, and the complete
+ * {@link DaoAuthenticationProvider#authenticate} including the account cache,
+ * authority mapping and the bounded BCrypt check.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthenticationPathBenchmark {
+
+	private static final String USER_NAME = "jmhuser";
+	private static final String PASSWORD = "secret123";
+
+	private ConfigurableApplicationContext context;
+
+	private UserDao userDao;
+
+	private DaoAuthenticationProvider authenticationProvider;
+
+	@Setup
+	public void startApplication() {
+		context = new SpringApplicationBuilder(UserManagementSystemApplication.class)
+				.profiles("test")
+				.properties("server.port=0", "logging.level.root=WARN")
+				.run();
+		userDao = context.getBean(UserDao.class);
+		authenticationProvider = context.getBean(DaoAuthenticationProvider.class);
+
+		UserService userService = context.getBean(UserService.class);
+		userService.save(new UserRegistrationDto(USER_NAME, PASSWORD, "Jmh", "User", USER_NAME + "@example.com"));
+	}
+
+	@TearDown
+	public void stopApplication() {
+		context.close();
+	}
+
+	@Benchmark
+	public Optional<User> daoFindByUserNameHit() {
+		return userDao.findByUserName(USER_NAME);
+	}
+
+	@Benchmark
+	public Optional<User> daoFindByUserNameMiss() {
+		return userDao.findByUserName("nosuchuser");
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public Authentication authenticate() {
+		return authenticationProvider.authenticate(
+				UsernamePasswordAuthenticationToken.unauthenticated(USER_NAME, PASSWORD));
+	}
+}
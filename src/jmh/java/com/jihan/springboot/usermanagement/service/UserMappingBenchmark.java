@@ -0,0 +1,111 @@
+package com.jihan.springboot.usermanagement.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+
+import com.jihan.springboot.usermanagement.dao.RoleDao;
+import com.jihan.springboot.usermanagement.dto.UserDto;
+import com.jihan.springboot.usermanagement.entity.Role;
+import com.jihan.springboot.usermanagement.entity.User;
+
+/**
+ * Per-call mapping work on the login and listing paths: entity to DTO, and
+ * role names to authorities. {@code authoritiesPerCall} rebuilds the list the
+ * way loadUserByUsername did before the role registry interned it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserMappingBenchmark {
+
+	private static final List<String> ROLE_NAMES = List.of("ROLE_EMPLOYEE", "ROLE_MANAGER", "ROLE_ADMIN");
+
+	private User user;
+
+	private RoleRegistry roleRegistry;
+
+	@Setup
+	public void setUp() {
+		List<Role> roles = new ArrayList<>();
+		for (int i = 0; i < ROLE_NAMES.size(); i++) {
+			Role role = new Role(ROLE_NAMES.get(i));
+			role.setId(i + 1L);
+			roles.add(role);
+		}
+
+		user = new User("benchmark", "$2a$10$hash", true, roles);
+		user.setId(42L);
+		user.setFirstName("Bench");
+		user.setLastName("Mark");
+		user.setEmail("benchmark@example.com");
+
+		roleRegistry = new RoleRegistry(new FixedRoleDao(roles), "ROLE_ADMIN > ROLE_MANAGER > ROLE_EMPLOYEE");
+		roleRegistry.refresh();
+	}
+
+	@Benchmark
+	public UserDto convertToDto() {
+		return UserServiceImpl.convertToDto(user);
+	}
+
+	@Benchmark
+	public Collection<GrantedAuthority> authoritiesPerCall() {
+		Collection<GrantedAuthority> authorities = new ArrayList<>();
+		for (String roleName : ROLE_NAMES) {
+			authorities.add(roleRegistry.authorityFor(roleName));
+		}
+		return authorities;
+	}
+
+	@Benchmark
+	public List<GrantedAuthority> authoritiesInterned() {
+		return roleRegistry.authoritiesFor(ROLE_NAMES);
+	}
+
+	@Benchmark
+	public long effectiveRoleMask() {
+		return roleRegistry.effectiveMaskOf(ROLE_NAMES);
+	}
+
+	private static final class FixedRoleDao implements RoleDao {
+
+		private final List<Role> roles;
+
+		private FixedRoleDao(List<Role> roles) {
+			this.roles = roles;
+		}
+
+		@Override
+		public Optional<Role> findRoleByName(String theRoleName) {
+			return roles.stream().filter(role -> role.getName().equals(theRoleName)).findFirst();
+		}
+
+		@Override
+		public List<Role> findAll() {
+			return roles;
+		}
+
+		@Override
+		public Role getReference(Long theRoleId) {
+			return roles.get(theRoleId.intValue() - 1);
+		}
+	}
+}
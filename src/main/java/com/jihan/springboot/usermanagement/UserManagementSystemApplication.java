@@ -2,6 +2,9 @@ package com.jihan.springboot.usermanagement;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main Application Class for User Management System
@@ -13,9 +16,18 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * @version 1.0.0
  */
 @SpringBootApplication
+@EnableCaching
+@EnableScheduling
 public class UserManagementSystemApplication {
 
+	/**
+	 * Startup steps kept for the {@code /actuator/startup} timeline
+	 */
+	private static final int STARTUP_STEPS = 4096;
+
 	public static void main(String[] args) {
-		SpringApplication.run(UserManagementSystemApplication.class, args);
+		SpringApplication application = new SpringApplication(UserManagementSystemApplication.class);
+		application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS));
+		application.run(args);
 	}
 }
@@ -0,0 +1,121 @@
+package com.jihan.springboot.usermanagement.audit;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer
+ *
+ * A fixed array of slots, each with a sequence number (Vyukov's bounded queue).
+ * A producer claims a position with one CAS on the tail, writes the element and
+ * publishes it by advancing the slot's sequence; the consumer takes elements in
+ * order and hands each slot back by advancing its sequence one lap ahead. No
+ * producer ever blocks: {@link #offer(Object)} returns false when the buffer is full.
+ *
+ * Only one thread may call {@link #poll()} or {@link #drainTo(Collection, int)}.
+ *
+ * @param <E> element type
+ * @author Jihan
+ * @version 1.0.0
+ */
+public class AuditRingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+
+    // written by the consumer only; volatile so size() is safe from any thread
+    private volatile long head;
+
+    /**
+     * @param requestedCapacity minimum number of elements; rounded up to a power of two
+     */
+    public AuditRingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 2 || requestedCapacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacity must be between 2 and 2^30: " + requestedCapacity);
+        }
+        this.capacity = Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Add an element unless the buffer is full
+     * @param element the element, not null
+     * @return true if the element was added
+     */
+    public boolean offer(E element) {
+        long position = tail.get();
+        for (;;) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.set(index, element);
+                    // publishes the element to the consumer
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // the slot still holds an element from the previous lap
+                return false;
+            } else {
+                // another producer claimed this position first
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Take the oldest element; consumer thread only
+     * @return the element, or null if the buffer is empty
+     */
+    public E poll() {
+        long position = head;
+        int index = (int) position & mask;
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        E element = slots.get(index);
+        slots.set(index, null);
+        // hands the slot back to the producers for the next lap
+        sequences.set(index, position + capacity);
+        head = position + 1;
+        return element;
+    }
+
+    /**
+     * Move up to maxElements of the oldest elements into the target; consumer thread only
+     * @return number of elements moved
+     */
+    public int drainTo(Collection<? super E> target, int maxElements) {
+        int drained = 0;
+        E element;
+        while (drained < maxElements && (element = poll()) != null) {
+            target.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Approximate number of elements waiting; exact when producers are idle
+     */
+    public int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,327 @@
+package com.jihan.springboot.usermanagement.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.audit.AuditEvent;
+import org.springframework.boot.actuate.audit.AuditEventRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit trail in the {@code audit_events} table, written off the request path
+ *
+ * Spring Boot's actuator turns Spring Security authentication events into
+ * {@link AuditEvent}s and hands them to this repository; registrations arrive
+ * through {@link RegistrationAuditListener}. {@link #add(AuditEvent)} only copies
+ * the event into a compact row and offers it to a lock-free {@link AuditRingBuffer},
+ * so a login never waits for an insert. One background thread drains the buffer
+ * and writes JDBC batches of {@code app.audit.batch-size} rows, at least every
+ * {@code app.audit.flush-interval}.
+ *
+ * When the buffer is full, {@code app.audit.overflow-policy} decides:
+ * {@code drop} discards the event at once, {@code block} makes the caller wait
+ * up to {@code app.audit.block-timeout} for space before discarding it. Meters:
+ * {@code audit.events.backlog}, {@code audit.events.written},
+ * {@code audit.events.dropped{reason=overflow|write_error}} and {@code audit.events.flush}.
+ *
+ * @author Jihan
+ * @version 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "app.audit.enabled", havingValue = "true", matchIfMissing = true)
+public class JdbcAuditEventRepository implements AuditEventRepository, SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcAuditEventRepository.class);
+
+    private static final String INSERT_EVENT =
+            "insert into audit_events (occurred_at, event_type, principal_name, remote_address, detail) "
+            + "values (?, ?, ?, ?, ?)";
+
+    private static final String SELECT_EVENTS =
+            "select occurred_at, event_type, principal_name, remote_address, detail from audit_events";
+
+    private static final int PRINCIPAL_LENGTH = 100;
+    private static final int TYPE_LENGTH = 50;
+    private static final int ADDRESS_LENGTH = 45;
+    private static final int DETAIL_LENGTH = 255;
+
+    // how long a blocked producer parks between attempts
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /**
+     * What {@link #add(AuditEvent)} does when the buffer is full
+     */
+    public enum OverflowPolicy {
+        DROP, BLOCK
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditRingBuffer<AuditRow> buffer;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Duration shutdownTimeout;
+
+    private final Counter written;
+    private final Counter droppedOverflow;
+    private final Counter droppedWriteError;
+    private final Timer flushTimer;
+
+    private volatile boolean running;
+    private volatile Thread flusher;
+
+    public JdbcAuditEventRepository(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                                    @Value("${app.audit.capacity:8192}") int capacity,
+                                    @Value("${app.audit.overflow-policy:block}") String overflowPolicy,
+                                    @Value("${app.audit.block-timeout:100ms}") Duration blockTimeout,
+                                    @Value("${app.audit.batch-size:200}") int batchSize,
+                                    @Value("${app.audit.flush-interval:500ms}") Duration flushInterval,
+                                    @Value("${app.audit.shutdown-timeout:5s}") Duration shutdownTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.buffer = new AuditRingBuffer<>(capacity);
+        this.overflowPolicy = OverflowPolicy.valueOf(overflowPolicy.trim().toUpperCase(Locale.ROOT));
+        this.blockTimeoutNanos = blockTimeout.toNanos();
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.shutdownTimeout = shutdownTimeout;
+
+        Gauge.builder("audit.events.backlog", buffer, AuditRingBuffer::size)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+        this.written = Counter.builder("audit.events.written")
+                .description("Audit events written to the database")
+                .register(meterRegistry);
+        this.droppedOverflow = Counter.builder("audit.events.dropped")
+                .tag("reason", "overflow")
+                .description("Audit events discarded")
+                .register(meterRegistry);
+        this.droppedWriteError = Counter.builder("audit.events.dropped")
+                .tag("reason", "write_error")
+                .description("Audit events discarded")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("audit.events.flush")
+                .description("Time spent writing one batch of audit events")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void add(AuditEvent event) {
+        AuditRow row = AuditRow.from(event);
+        if (!buffer.offer(row) && !(overflowPolicy == OverflowPolicy.BLOCK && offerBlocking(row))) {
+            droppedOverflow.increment();
+            logger.debug("Audit buffer full, dropped {} for {}", row.type, row.principal);
+            return;
+        }
+        // wake the flusher early once a full batch is waiting
+        Thread thread = flusher;
+        if (thread != null && buffer.size() >= batchSize) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private boolean offerBlocking(AuditRow row) {
+        Thread thread = flusher;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+        long deadline = System.nanoTime() + blockTimeoutNanos;
+        while (System.nanoTime() < deadline) {
+            LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+            if (buffer.offer(row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Events already written, oldest first; events still in the buffer are not included
+     */
+    @Override
+    public List<AuditEvent> find(String principal, Instant after, String type) {
+        StringBuilder sql = new StringBuilder(SELECT_EVENTS).append(" where 1 = 1");
+        List<Object> args = new ArrayList<>(3);
+        if (principal != null) {
+            sql.append(" and principal_name = ?");
+            args.add(principal);
+        }
+        if (after != null) {
+            sql.append(" and occurred_at > ?");
+            args.add(Timestamp.from(after));
+        }
+        if (type != null) {
+            sql.append(" and event_type = ?");
+            args.add(type);
+        }
+        sql.append(" order by occurred_at, id");
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            Map<String, Object> data = new LinkedHashMap<>();
+            String remoteAddress = rs.getString("remote_address");
+            String detail = rs.getString("detail");
+            if (remoteAddress != null) {
+                data.put("remoteAddress", remoteAddress);
+            }
+            if (detail != null) {
+                data.put("detail", detail);
+            }
+            return new AuditEvent(rs.getTimestamp("occurred_at").toInstant(), rs.getString("principal_name"),
+                    rs.getString("event_type"), data);
+        }, args.toArray());
+    }
+
+    /**
+     * Write everything buffered so far on the calling thread
+     */
+    public synchronized void flush() {
+        List<AuditRow> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void runFlusher() {
+        List<AuditRow> batch = new ArrayList<>(batchSize);
+        while (running) {
+            synchronized (this) {
+                buffer.drainTo(batch, batchSize);
+                if (!batch.isEmpty()) {
+                    write(batch);
+                    batch.clear();
+                }
+            }
+            // keep going while full batches are waiting, otherwise collect for one interval
+            if (buffer.size() < batchSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+        }
+        flush();
+    }
+
+    private void write(List<AuditRow> batch) {
+        try {
+            flushTimer.record(() -> jdbcTemplate.batchUpdate(INSERT_EVENT, batch, batch.size(), (ps, row) -> {
+                ps.setTimestamp(1, Timestamp.from(row.occurredAt));
+                ps.setString(2, row.type);
+                ps.setString(3, row.principal);
+                ps.setString(4, row.remoteAddress);
+                ps.setString(5, row.detail);
+            }));
+            written.increment(batch.size());
+        } catch (DataAccessException e) {
+            droppedWriteError.increment(batch.size());
+            logger.warn("Could not write {} audit events: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("audit-flusher-");
+        threadFactory.setDaemon(true);
+        Thread thread = threadFactory.newThread(this::runFlusher);
+        flusher = thread;
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        Thread thread = flusher;
+        running = false;
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            logger.warn("Audit flusher did not finish within {}; {} events not written", shutdownTimeout, buffer.size());
+        }
+        flusher = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stopped after the web server, so the last requests' events are still written,
+     * and before the data source is closed
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2048;
+    }
+
+    /**
+     * The columns of one event, copied out of the event so the buffer holds no request state
+     */
+    private static final class AuditRow {
+
+        private final Instant occurredAt;
+        private final String type;
+        private final String principal;
+        private final String remoteAddress;
+        private final String detail;
+
+        private AuditRow(Instant occurredAt, String type, String principal, String remoteAddress, String detail) {
+            this.occurredAt = occurredAt;
+            this.type = type;
+            this.principal = principal;
+            this.remoteAddress = remoteAddress;
+            this.detail = detail;
+        }
+
+        static AuditRow from(AuditEvent event) {
+            Map<String, Object> data = event.getData();
+            String remoteAddress = null;
+            if (data.get("details") instanceof WebAuthenticationDetails details) {
+                remoteAddress = details.getRemoteAddress();
+            } else if (data.get("remoteAddress") instanceof String address) {
+                remoteAddress = address;
+            }
+            // failures carry the exception type; other events may carry a detail
+            Object detail = data.containsKey("type") ? data.get("type") : data.get("detail");
+            return new AuditRow(event.getTimestamp(),
+                    truncate(event.getType(), TYPE_LENGTH),
+                    truncate(event.getPrincipal(), PRINCIPAL_LENGTH),
+                    truncate(remoteAddress, ADDRESS_LENGTH),
+                    truncate(detail != null ? detail.toString() : null, DETAIL_LENGTH));
+        }
+
+        // principals of failed logins are whatever the client typed
+        private static String truncate(String value, int maxLength) {
+            return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.jihan.springboot.usermanagement.audit;
+
+import com.jihan.springboot.usermanagement.event.UserRegisteredEvent;
+import com.jihan.springboot.usermanagement.event.UsersImportedEvent;
+import org.springframework.boot.actuate.audit.AuditEvent;
+import org.springframework.boot.actuate.audit.AuditEventRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records every registration in the audit trail, next to the authentication
+ * events that Spring Boot's {@code AuthenticationAuditListener} records.
+ * Accounts created by the bulk import are registrations too; their detail
+ * carries {@code source=import}.
+ *
+ * @author Jihan
+ * @version 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "app.audit.enabled", havingValue = "true", matchIfMissing = true)
+public class RegistrationAuditListener {
+
+    public static final String USER_REGISTERED = "USER_REGISTERED";
+
+    private final AuditEventRepository auditEventRepository;
+
+    public RegistrationAuditListener(AuditEventRepository auditEventRepository) {
+        this.auditEventRepository = auditEventRepository;
+    }
+
+    @EventListener
+    public void onUserRegistered(UserRegisteredEvent event) {
+        auditEventRepository.add(new AuditEvent(event.getUserName(), USER_REGISTERED,
+                Map.of("detail", "userId=" + event.getUserId())));
+    }
+
+    @EventListener
+    public void onUsersImported(UsersImportedEvent event) {
+        List<Long> userIds = event.getUserIds();
+        List<String> userNames = event.getUserNames();
+        for (int i = 0; i < userIds.size(); i++) {
+            auditEventRepository.add(new AuditEvent(userNames.get(i), USER_REGISTERED,
+                    Map.of("detail", "userId=" + userIds.get(i) + ", source=import")));
+        }
+    }
+}
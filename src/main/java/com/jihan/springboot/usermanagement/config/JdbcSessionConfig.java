@@ -0,0 +1,41 @@
+package com.jihan.springboot.usermanagement.config;
+
+import com.jihan.springboot.usermanagement.session.JdbcSessionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * HTTP sessions stored in the database instead of the servlet container
+ *
+ * Enabled with {@code app.session.store=jdbc}. Every node reads and writes the
+ * {@code http_sessions} table, so requests need no sticky routing and the
+ * concurrent session limit is enforced across the cluster. See
+ * {@link JdbcSessionRepository} for the near-cache and write-behind behaviour.
+ *
+ * @author Jihan
+ * @version 1.0.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.session.store", havingValue = "jdbc")
+@EnableSpringHttpSession
+public class JdbcSessionConfig {
+
+    @Bean
+    public JdbcSessionRepository sessionRepository(DataSource dataSource,
+                                                   MeterRegistry meterRegistry,
+                                                   @Value("${server.servlet.session.timeout:30m}") Duration timeout,
+                                                   @Value("${app.session.jdbc.near-cache-size:10000}") int nearCacheSize,
+                                                   @Value("${app.session.jdbc.flush-interval-ms:1000}") long flushIntervalMillis) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        return new JdbcSessionRepository(jdbcTemplate, timeout, nearCacheSize, Duration.ofMillis(flushIntervalMillis),
+                getClass().getClassLoader(), meterRegistry);
+    }
+}
@@ -0,0 +1,93 @@
+package com.jihan.springboot.usermanagement.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Periodically measures how far the read replica is behind the primary
+ * 
+ * The replica is considered usable only while its replay lag is within
+ * {@code app.datasource.replica.max-lag} and the lag query succeeds. It starts
+ * out unusable, so reads go to the primary until the first check has passed.
+ * 
+ * @author Jihan
+ * @version 1.0.0
+ */
+public class ReplicaLagMonitor {
+
+    /**
+     * Replay lag in seconds. A replica that has replayed everything it received
+     * reports 0 even if the primary has been idle; a server that is not in
+     * recovery (e.g. a second local database used for testing) also reports 0.
+     */
+    public static final String POSTGRES_LAG_QUERY =
+            "select case when not pg_is_in_recovery() then 0 "
+            + "when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 "
+            + "else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0) end";
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration maxLag;
+    private final String lagQuery;
+
+    private volatile boolean replicaUsable;
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, Duration maxLag, String lagQuery,
+                             MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.jdbcTemplate.setQueryTimeout(Math.max(1, (int) maxLag.toSeconds()));
+        this.maxLag = maxLag;
+        this.lagQuery = lagQuery;
+
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+                .description("Replay lag of the read replica, NaN when it cannot be measured")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.usable", this, monitor -> monitor.replicaUsable ? 1 : 0)
+                .description("1 while read-only transactions are routed to the replica")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether read-only transactions may currently use the replica
+     */
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:5000}")
+    public void checkLag() {
+        boolean usable;
+        try {
+            Double lag = jdbcTemplate.queryForObject(lagQuery, Double.class);
+            lagSeconds = lag == null ? 0 : lag;
+            usable = lagSeconds * 1000 <= maxLag.toMillis();
+        } catch (DataAccessException e) {
+            lagSeconds = Double.NaN;
+            usable = false;
+            if (replicaUsable) {
+                logger.warn("Replica lag check failed, routing reads to the primary", e);
+            }
+        }
+
+        if (usable != replicaUsable) {
+            if (usable) {
+                logger.info("Replica lag {}s is within {}, routing read-only transactions to the replica",
+                        lagSeconds, maxLag);
+            } else if (!Double.isNaN(lagSeconds)) {
+                logger.warn("Replica lag {}s exceeds {}, routing reads to the primary", lagSeconds, maxLag);
+            }
+            replicaUsable = usable;
+        }
+    }
+}
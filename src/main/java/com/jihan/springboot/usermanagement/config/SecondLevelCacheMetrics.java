@@ -0,0 +1,58 @@
+package com.jihan.springboot.usermanagement.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import javax.cache.CacheManager;
+
+/**
+ * Publishes the Hibernate second-level cache regions as {@code cache.*} meters
+ *
+ * Hibernate's own metrics only report region hits and misses while
+ * {@code hibernate.generate_statistics} is on, which costs a little on every
+ * session and is enabled in the dev profile only. The regions are JCache caches
+ * with JSR-107 statistics enabled in every ehcache/*.xml, so their counters are
+ * read from there instead: {@code cache.gets{cache, result}}, {@code cache.puts},
+ * {@code cache.evictions} and {@code cache.removals}, tagged
+ * {@code cache.manager=hibernate} next to the Spring-managed caches.
+ *
+ * @author Jihan
+ * @version 1.0.0
+ */
+@Component
+public class SecondLevelCacheMetrics implements MeterBinder {
+
+    private static final Tags TAGS = Tags.of(Tag.of("cache.manager", "hibernate"));
+
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    public SecondLevelCacheMetrics(ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        EntityManagerFactory factory = entityManagerFactory.getIfAvailable();
+        if (factory == null) {
+            return;
+        }
+        // NoCachingRegionFactory when the second-level cache is disabled
+        RegionFactory regionFactory = factory.unwrap(SessionFactoryImplementor.class).getCache().getRegionFactory();
+        if (!(regionFactory instanceof JCacheRegionFactory jCacheRegionFactory)) {
+            return;
+        }
+        CacheManager cacheManager = jCacheRegionFactory.getCacheManager();
+        for (String cacheName : cacheManager.getCacheNames()) {
+            JCacheMetrics.monitor(registry, cacheManager.getCache(cacheName), TAGS);
+        }
+    }
+}
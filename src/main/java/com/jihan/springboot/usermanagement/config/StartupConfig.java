@@ -0,0 +1,43 @@
+package com.jihan.springboot.usermanagement.config;
+
+import com.jihan.springboot.usermanagement.security.ApiTokenService;
+import com.jihan.springboot.usermanagement.service.RoleRegistry;
+import com.jihan.springboot.usermanagement.service.UserAccountCache;
+import com.jihan.springboot.usermanagement.session.JdbcSessionRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.SecurityFilterChain;
+
+/**
+ * Beans that stay eager under {@code spring.main.lazy-initialization=true}
+ * (the fast-start profile)
+ *
+ * Everything on the login path is created at startup, so the first logins on
+ * a fresh node don't pay for Hibernate bootstrap or the hashing pool; so are
+ * beans with {@code @Scheduled} methods, which only get scheduled once created.
+ * Admin pages, import/export and the API documentation are created on first use.
+ *
+ * @author Jihan
+ * @version 1.0.0
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter loginPathExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                EntityManagerFactory.class,
+                SecurityFilterChain.class,
+                PasswordEncoder.class,
+                UserDetailsService.class,
+                RoleRegistry.class,
+                UserAccountCache.class,
+                ApiTokenService.class,
+                ReplicaLagMonitor.class,
+                JdbcSessionRepository.class);
+    }
+}
@@ -0,0 +1,63 @@
+package com.jihan.springboot.usermanagement.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Database concurrency limit for the virtual-thread execution mode
+ *
+ * Enabled with {@code app.datasource.concurrency-limit.enabled}, which follows
+ * {@code spring.threads.virtual.enabled} by default. Every Hikari pool (the
+ * primary and, when configured, the replica) is wrapped in a
+ * {@link ConcurrencyLimitedDataSource} with one permit per pooled connection
+ * and the pool's connection timeout as the permit timeout.
+ *
+ * @author Jihan
+ * @version 1.0.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.concurrency-limit.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    // static: post-processors are created before regular beans
+    @Bean
+    public static BeanPostProcessor dataSourceConcurrencyLimiter(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource pool)) {
+                    return bean;
+                }
+                // properties are bound by now, so the pool size is final
+                int permits = pool.getMaximumPoolSize();
+                ConcurrencyLimitedDataSource limited = new ConcurrencyLimitedDataSource(pool, permits,
+                        Duration.ofMillis(pool.getConnectionTimeout()));
+                String poolName = pool.getPoolName() != null ? pool.getPoolName() : beanName;
+                meterRegistry.ifAvailable(registry -> {
+                    Gauge.builder("datasource.concurrency.waiting", limited, ConcurrencyLimitedDataSource::getWaiting)
+                            .description("Callers parked waiting for a database connection permit")
+                            .tag("pool", poolName)
+                            .register(registry);
+                    Gauge.builder("datasource.concurrency.available", limited, ConcurrencyLimitedDataSource::getAvailable)
+                            .description("Database connection permits not in use")
+                            .tag("pool", poolName)
+                            .register(registry);
+                });
+                logger.info("Limiting {} to {} concurrent connections", poolName, permits);
+                return limited;
+            }
+        };
+    }
+}
@@ -0,0 +1,270 @@
+package com.jihan.springboot.usermanagement.config;
+
+import com.jihan.springboot.usermanagement.dao.UserDao;
+import com.jihan.springboot.usermanagement.service.RoleRegistry;
+import com.jihan.springboot.usermanagement.service.UserAccountCache;
+import com.jihan.springboot.usermanagement.session.JdbcSessionRepository;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warms up the pools, the DAO and hashing paths and the account cache before
+ * the node reports itself ready
+ *
+ * Spring Boot publishes {@code ReadinessState.ACCEPTING_TRAFFIC} only after all
+ * application runners have returned, so this runner holds the readiness probe
+ * back while it:
+ * <ol>
+ *   <li>opens {@code minimum-idle} connections in every Hikari pool,</li>
+ *   <li>runs the authentication and registration queries a few hundred times,
+ *       so their statements are prepared server-side and the code is compiled,</li>
+ *   <li>runs a few bcrypt encode/match cycles through the hashing pool,</li>
+ *   <li>reloads the roles and preloads the accounts of recently active users
+ *       (principals of live JDBC sessions, else the most recently updated users).</li>
+ * </ol>
+ * All steps share {@code app.warmup.budget}; when it runs out the remaining steps
+ * are skipped and the node goes ready cold rather than late. Each step is timed
+ * as {@code app.warmup{phase, outcome}}, the whole run as phase {@code total}.
+ *
+ * @author Jihan
+ * @version 1.0.0
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "app.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class WarmUpRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmUpRunner.class);
+
+    private static final String WARMUP_PASSWORD = "warm-up-password";
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<DataSource> dataSources;
+    private final UserDao userDao;
+    private final RoleRegistry roleRegistry;
+    private final UserAccountCache userAccountCache;
+    private final PasswordEncoder passwordEncoder;
+    private final ObjectProvider<JdbcSessionRepository> sessionRepository;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate primaryTransaction;
+    private final Duration budget;
+    private final int queryIterations;
+    private final int hashCycles;
+    private final int preloadUsers;
+
+    public WarmUpRunner(ApplicationEventPublisher eventPublisher,
+                        ObjectProvider<DataSource> dataSources,
+                        UserDao userDao,
+                        RoleRegistry roleRegistry,
+                        UserAccountCache userAccountCache,
+                        PasswordEncoder passwordEncoder,
+                        ObjectProvider<JdbcSessionRepository> sessionRepository,
+                        MeterRegistry meterRegistry,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${app.warmup.budget:20s}") Duration budget,
+                        @Value("${app.warmup.query-iterations:200}") int queryIterations,
+                        @Value("${app.warmup.hash-cycles:5}") int hashCycles,
+                        @Value("${app.warmup.preload-users:500}") int preloadUsers) {
+        this.eventPublisher = eventPublisher;
+        this.dataSources = dataSources;
+        this.userDao = userDao;
+        this.roleRegistry = roleRegistry;
+        this.userAccountCache = userAccountCache;
+        this.passwordEncoder = passwordEncoder;
+        this.sessionRepository = sessionRepository;
+        this.meterRegistry = meterRegistry;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // account cache loads stay on the primary, like UserAccountCache itself:
+        // a lagging replica must never cache a stale password
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.budget = budget;
+        this.queryIterations = queryIterations;
+        this.hashCycles = hashCycles;
+        this.preloadUsers = preloadUsers;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        // already the state at this point; published so the intent shows up in the availability log
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+
+        long start = System.nanoTime();
+        long deadline = start + budget.toNanos();
+        logger.info("Warming up before accepting traffic (budget {})", budget);
+
+        String outcome = "completed";
+        outcome = worst(outcome, runPhase("pools", deadline, () -> warmPools(deadline)));
+        outcome = worst(outcome, runPhase("queries", deadline,
+                () -> readOnlyTransaction.execute(status -> warmQueries(deadline))));
+        outcome = worst(outcome, runPhase("hashing", deadline, () -> warmHashing(deadline)));
+        outcome = worst(outcome, runPhase("preload", deadline,
+                () -> primaryTransaction.execute(status -> preloadAccounts(deadline))));
+
+        long elapsed = System.nanoTime() - start;
+        record("total", outcome, elapsed);
+        logger.info("Warm-up {} in {} ms", outcome, TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    /**
+     * Open connections until every Hikari pool holds at least its minimum-idle
+     */
+    private boolean warmPools(long deadline) throws SQLException, InterruptedException {
+        // the routing data source unwraps to the primary pool, so pools are de-duplicated
+        Set<HikariDataSource> pools = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (DataSource dataSource : dataSources) {
+            HikariDataSource pool = DataSourceUnwrapper.unwrap(dataSource, HikariConfigMXBean.class,
+                    HikariDataSource.class);
+            if (pool == null || !pools.add(pool)) {
+                continue;
+            }
+            if (pool.getHikariPoolMXBean() == null) {
+                // Hikari starts the pool lazily on the first borrow; go through the
+                // outer data source so any wrapper is exercised as well
+                try (Connection ignored = dataSource.getConnection()) {
+                    logger.debug("Started pool {}", pool.getPoolName());
+                }
+            }
+            HikariPoolMXBean poolBean = pool.getHikariPoolMXBean();
+            int target = Math.min(pool.getMinimumIdle(), pool.getMaximumPoolSize());
+            while (poolBean.getTotalConnections() < target) {
+                if (System.nanoTime() >= deadline) {
+                    return false;
+                }
+                Thread.sleep(10);
+            }
+            logger.debug("Pool {} holds {} connections", pool.getPoolName(), poolBean.getTotalConnections());
+        }
+        return true;
+    }
+
+    /**
+     * Run the login and registration lookups; misses exercise the same statements as hits
+     */
+    private boolean warmQueries(long deadline) {
+        for (int i = 0; i < queryIterations; i++) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            String probe = "warmup-probe-" + i;
+            userDao.findByUserName(probe);
+            userDao.existsByUserName(probe);
+            userDao.existsByEmail(probe + "@warmup.invalid");
+        }
+        return true;
+    }
+
+    /**
+     * Hash and verify through the bounded encoder, which also starts its worker threads
+     */
+    private boolean warmHashing(long deadline) {
+        if (hashCycles <= 0) {
+            return true;
+        }
+        String hash = passwordEncoder.encode(WARMUP_PASSWORD);
+        for (int i = 1; i < hashCycles; i++) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            passwordEncoder.matches(WARMUP_PASSWORD, hash);
+        }
+        return true;
+    }
+
+    /**
+     * Reload the roles and load recently active accounts into the authentication cache
+     */
+    private boolean preloadAccounts(long deadline) {
+        roleRegistry.refresh();
+        if (preloadUsers <= 0) {
+            return true;
+        }
+        JdbcSessionRepository sessions = sessionRepository.getIfAvailable();
+        List<String> userNames = sessions != null
+                ? sessions.findRecentPrincipalNames(preloadUsers)
+                : userDao.findRecentUserNames(preloadUsers);
+
+        int loaded = 0;
+        for (String userName : userNames) {
+            if (System.nanoTime() >= deadline) {
+                logger.debug("Preloaded {} of {} accounts before the budget ran out", loaded, userNames.size());
+                return false;
+            }
+            if (userAccountCache.findByUserName(userName) != null) {
+                loaded++;
+            }
+        }
+        logger.debug("Preloaded {} accounts", loaded);
+        return true;
+    }
+
+    private String runPhase(String phase, long deadline, Phase work) {
+        long start = System.nanoTime();
+        String outcome;
+        if (start >= deadline) {
+            outcome = "skipped";
+        } else {
+            try {
+                outcome = work.run() ? "completed" : "timeout";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                outcome = "failed";
+            } catch (Exception e) {
+                // a cold node is still a working node; never fail startup over warm-up
+                logger.warn("Warm-up phase {} failed: {}", phase, e.toString());
+                outcome = "failed";
+            }
+        }
+        record(phase, outcome, System.nanoTime() - start);
+        return outcome;
+    }
+
+    private void record(String phase, String outcome, long nanos) {
+        Timer.builder("app.warmup")
+                .description("Time spent warming up before reporting readiness")
+                .tag("phase", phase)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static String worst(String current, String next) {
+        return "completed".equals(current) ? next : current;
+    }
+
+    @FunctionalInterface
+    private interface Phase {
+        boolean run() throws Exception;
+    }
+}
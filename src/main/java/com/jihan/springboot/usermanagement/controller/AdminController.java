@@ -0,0 +1,135 @@
+package com.jihan.springboot.usermanagement.controller;
+
+import com.jihan.springboot.usermanagement.dto.ImportReport;
+import com.jihan.springboot.usermanagement.dto.UserPage;
+import com.jihan.springboot.usermanagement.dto.UserRegistrationDto;
+import com.jihan.springboot.usermanagement.service.ExportFormat;
+import com.jihan.springboot.usermanagement.service.RoleRegistry;
+import com.jihan.springboot.usermanagement.service.UserExportService;
+import com.jihan.springboot.usermanagement.service.UserImportParser;
+import com.jihan.springboot.usermanagement.service.UserImportService;
+import com.jihan.springboot.usermanagement.service.UserSearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Administrative operations, secured together with the rest of {@code /systems/**}
+ *
+ * @author Jihan
+ * @version 1.0.0
+ */
+@Controller
+@RequestMapping("/systems")
+public class AdminController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminController.class);
+
+    private final RoleRegistry roleRegistry;
+    private final UserExportService userExportService;
+    private final UserImportService userImportService;
+    private final UserSearchIndex userSearchIndex;
+
+    @Autowired
+    public AdminController(RoleRegistry roleRegistry, UserExportService userExportService,
+                           UserImportService userImportService, UserSearchIndex userSearchIndex) {
+        this.roleRegistry = roleRegistry;
+        this.userExportService = userExportService;
+        this.userImportService = userImportService;
+        this.userSearchIndex = userSearchIndex;
+    }
+
+    /**
+     * Reload the role registry after roles were changed in the database
+     */
+    @PostMapping("/roles/refresh")
+    public String refreshRoles() {
+        logger.info("Refreshing role registry on admin request");
+        roleRegistry.refresh();
+        return "redirect:/systems";
+    }
+
+    /**
+     * Type-ahead search over username, full name and email, served from memory
+     * @param q the text typed so far
+     * @param cursor cursor from the previous page, if any; 400 once the index was
+     *        compacted or rebuilt since, so the client starts again from the first page
+     * @param size page size, capped at 100
+     */
+    @GetMapping("/users/search")
+    @ResponseBody
+    public ResponseEntity<UserPage> searchUsers(@RequestParam(defaultValue = "") String q,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(userSearchIndex.search(q, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Download the user directory, streamed from the database as it is written
+     * @param format "csv" or "ndjson"
+     * @param gzip whether to gzip the download
+     */
+    @GetMapping("/users/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.from(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String fileName = "users-" + LocalDate.now() + "." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        logger.info("Starting user export as {}", fileName);
+
+        StreamingResponseBody body = out -> userExportService.export(exportFormat, gzip, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+
+    /**
+     * Bulk-create users with the default role from a CSV or JSON upload
+     * @param file ".csv" with a header row, otherwise a JSON array or NDJSON
+     * @return per-row errors and throughput; 400 if the file cannot be parsed
+     */
+    @PostMapping("/users/import")
+    @ResponseBody
+    public ResponseEntity<ImportReport> importUsers(@RequestParam("file") MultipartFile file) throws IOException {
+        List<UserRegistrationDto> rows;
+        try (InputStream in = file.getInputStream()) {
+            rows = UserImportParser.parse(file.getOriginalFilename(), in);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected user import {}: {}", file.getOriginalFilename(), e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+
+        logger.info("Starting import of {} users from {}", rows.size(), file.getOriginalFilename());
+        return ResponseEntity.ok(userImportService.importUsers(rows));
+    }
+}
@@ -0,0 +1,131 @@
+package com.jihan.springboot.usermanagement.controller;
+
+import com.jihan.springboot.usermanagement.dto.ApiPrincipalDto;
+import com.jihan.springboot.usermanagement.dto.ApiTokenRequest;
+import com.jihan.springboot.usermanagement.dto.ApiTokenResponse;
+import com.jihan.springboot.usermanagement.exception.HashingCapacityExceededException;
+import com.jihan.springboot.usermanagement.security.ApiTokenService;
+import com.jihan.springboot.usermanagement.security.LoginMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.security.authentication.AuthenticationEventPublisher;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Stateless API for programmatic clients, secured by the {@code /api/**} filter chain
+ *
+ * A client exchanges its credentials for a token once (one bcrypt check) and
+ * then sends it as a bearer token; no HTTP session is created.
+ *
+ * @author Jihan
+ * @version 1.0.0
+ */
+@RestController
+@RequestMapping("/api")
+public class ApiController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiController.class);
+
+    private final DaoAuthenticationProvider authenticationProvider;
+    private final ApiTokenService apiTokenService;
+    private final LoginMetrics loginMetrics;
+    private final AuthenticationEventPublisher authenticationEventPublisher;
+
+    @Autowired
+    public ApiController(DaoAuthenticationProvider authenticationProvider, ApiTokenService apiTokenService,
+                         LoginMetrics loginMetrics, AuthenticationEventPublisher authenticationEventPublisher) {
+        this.authenticationProvider = authenticationProvider;
+        this.apiTokenService = apiTokenService;
+        this.loginMetrics = loginMetrics;
+        this.authenticationEventPublisher = authenticationEventPublisher;
+    }
+
+    /**
+     * Issue a token for valid credentials
+     */
+    @PostMapping("/auth/token")
+    public ApiTokenResponse issueToken(@Valid @RequestBody ApiTokenRequest tokenRequest, HttpServletRequest request) {
+        UsernamePasswordAuthenticationToken credentials =
+                UsernamePasswordAuthenticationToken.unauthenticated(tokenRequest.getUsername(), tokenRequest.getPassword());
+        credentials.setDetails(new WebAuthenticationDetails(request));
+
+        // the provider is called directly, not through a ProviderManager, so the
+        // events that feed the audit trail are published here
+        Authentication authentication;
+        try {
+            authentication = authenticationProvider.authenticate(credentials);
+        } catch (AuthenticationException e) {
+            authenticationEventPublisher.publishAuthenticationFailure(e, credentials);
+            throw e;
+        }
+        authenticationEventPublisher.publishAuthenticationSuccess(authentication);
+        loginMetrics.recordSuccess(LoginMetrics.Channel.API);
+
+        ApiTokenService.ApiToken token = apiTokenService.issue(authentication.getName(), authentication.getAuthorities());
+        logger.debug("Issued API token {} to {}", token.getTokenId(), token.getUsername());
+        return new ApiTokenResponse(token.getValue(), apiTokenService.getTtl().toSeconds(), token.getExpiresAt());
+    }
+
+    /**
+     * Revoke the token this request was made with
+     */
+    @PostMapping("/auth/revoke")
+    public ResponseEntity<Void> revokeToken(Authentication authentication) {
+        apiTokenService.revoke((ApiTokenService.ApiToken) authentication.getDetails());
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * The caller as seen by the API
+     */
+    @GetMapping("/users/me")
+    public ApiPrincipalDto currentUser(Authentication authentication) {
+        ApiTokenService.ApiToken token = (ApiTokenService.ApiToken) authentication.getDetails();
+        return new ApiPrincipalDto(authentication.getName(),
+                authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList(),
+                token.getExpiresAt());
+    }
+
+    @ExceptionHandler({MethodArgumentNotValidException.class, HttpMessageNotReadableException.class})
+    public ResponseEntity<Void> handleBadRequest(Exception ex) {
+        logger.debug("Malformed API token request: {}", ex.getMessage());
+        return ResponseEntity.badRequest().build();
+    }
+
+    @ExceptionHandler(HashingCapacityExceededException.class)
+    public ResponseEntity<Void> handleHashingCapacityExceeded(HashingCapacityExceededException ex) {
+        logger.warn("Password hashing capacity exceeded for API token request: {}", ex.getMessage());
+        loginMetrics.recordFailure(LoginMetrics.Channel.API, ex);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .build();
+    }
+
+    @ExceptionHandler(AuthenticationException.class)
+    public ResponseEntity<Void> handleAuthenticationFailure(AuthenticationException ex) {
+        logger.debug("API token request rejected: {}", ex.getMessage());
+        loginMetrics.recordFailure(LoginMetrics.Channel.API, ex);
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .header(HttpHeaders.WWW_AUTHENTICATE, "Bearer")
+                .build();
+    }
+}
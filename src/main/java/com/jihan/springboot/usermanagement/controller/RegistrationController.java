@@ -2,10 +2,11 @@ package com.jihan.springboot.usermanagement.controller;
 
 import java.util.logging.Logger;
 
-import com.jihan.springboot.usermanagement.entity.User;
+import com.jihan.springboot.usermanagement.exception.UserAlreadyExistsException;
 import com.jihan.springboot.usermanagement.service.UserService;
 import com.jihan.springboot.usermanagement.user.WebUser;
-import jakarta.servlet.http.HttpSession;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -28,9 +29,16 @@ public class RegistrationController {
 
     private UserService userService;
 
+    private final Counter createdCounter;
+    private final Counter duplicateCounter;
+    private final Counter invalidCounter;
+
     @Autowired
-    public RegistrationController(UserService userService) {
+    public RegistrationController(UserService userService, MeterRegistry meterRegistry) {
         this.userService = userService;
+        this.createdCounter = registrationCounter(meterRegistry, "created");
+        this.duplicateCounter = registrationCounter(meterRegistry, "duplicate");
+        this.invalidCounter = registrationCounter(meterRegistry, "invalid");
     }
 
     @InitBinder
@@ -53,34 +61,44 @@ public class RegistrationController {
     public String processRegistrationForm(
             @Valid @ModelAttribute("webUser") WebUser theWebUser,
             BindingResult theBindingResult,
-            HttpSession session, Model theModel) {
+            Model theModel) {
 
         String userName = theWebUser.getUserName();
         logger.info("Processing registration form for: " + userName);
 
         // form validation
         if (theBindingResult.hasErrors()){
+            invalidCounter.increment();
             return "register/registration-form";
         }
 
-        // check the database if user already exists
-        User existing = userService.findByUserName(userName);
-        if (existing != null){
+        // create user account and store in the databse; the unique constraints
+        // on username and email reject duplicates in the same round trip
+        try {
+            userService.save(theWebUser);
+        } catch (UserAlreadyExistsException e) {
+            duplicateCounter.increment();
             theModel.addAttribute("webUser", new WebUser());
-            theModel.addAttribute("registrationError", "User name already exists.");
+            theModel.addAttribute("registrationError", e.getMessage());
 
-            logger.warning("User name already exists.");
+            logger.warning(e.getMessage());
             return "register/registration-form";
         }
 
-        // create user account and store in the databse
-        userService.save(theWebUser);
-
+        createdCounter.increment();
         logger.info("Successfully created user: " + userName);
 
-        // place user in the web http session for later use
-        session.setAttribute("user", theWebUser);
+        // the confirmation page reads the form from the model; nothing goes into
+        // the session, the user is placed there as a SessionUser on login
+        theWebUser.setPassword(null);
 
         return "register/registration-confirmation";
     }
+
+    private static Counter registrationCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("user.registrations")
+                .tag("outcome", outcome)
+                .description("Registration form submissions by outcome")
+                .register(meterRegistry);
+    }
 }
\ No newline at end of file
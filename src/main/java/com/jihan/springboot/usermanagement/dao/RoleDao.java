@@ -2,8 +2,15 @@ package com.jihan.springboot.usermanagement.dao;
 
 import com.jihan.springboot.usermanagement.entity.Role;
 
+import java.util.List;
+import java.util.Optional;
+
 public interface RoleDao {
 
-	public Role findRoleByName(String theRoleName);
+	public Optional<Role> findRoleByName(String theRoleName);
+
+	public List<Role> findAll();
+
+	public Role getReference(Long theRoleId);
 	
 }
@@ -2,10 +2,12 @@ package com.jihan.springboot.usermanagement.dao;
 
 import com.jihan.springboot.usermanagement.entity.Role;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.TypedQuery;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public class RoleDaoImpl implements RoleDao {
 
@@ -17,20 +19,28 @@ public class RoleDaoImpl implements RoleDao {
 	}
 
 	@Override
-	public Role findRoleByName(String theRoleName) {
-
-		// retrieve/read from database using name
-		TypedQuery<Role> theQuery = entityManager.createQuery("from Role where name=:roleName", Role.class);
-		theQuery.setParameter("roleName", theRoleName);
-		
-		Role theRole = null;
-		
-		try {
-			theRole = theQuery.getSingleResult();
-		} catch (Exception e) {
-			theRole = null;
-		}
-		
-		return theRole;
+	public Optional<Role> findRoleByName(String theRoleName) {
+
+		// named query, a miss is an empty result instead of an exception
+		return entityManager.createNamedQuery(Role.FIND_BY_NAME, Role.class)
+			.setParameter("roleName", theRoleName)
+			.setMaxResults(1)
+			.getResultList()
+			.stream()
+			.findFirst();
+	}
+
+	@Override
+	public List<Role> findAll() {
+
+		// read all roles, used to build the role registry
+		return entityManager.createNamedQuery(Role.FIND_ALL, Role.class).getResultList();
+	}
+
+	@Override
+	public Role getReference(Long theRoleId) {
+
+		// uninitialized proxy: no select is issued as long as only the id is used
+		return entityManager.getReference(Role.class, theRoleId);
 	}
 }
@@ -2,7 +2,10 @@ package com.jihan.springboot.usermanagement.dao;
 
 import com.jihan.springboot.usermanagement.entity.User;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Data Access Object interface for User entity
@@ -17,23 +20,37 @@ public interface UserDao {
     /**
      * Find user by username
      * @param userName the username to search for
-     * @return User entity or null if not found
+     * @return the enabled user, or empty if there is none
      */
-    User findByUserName(String userName);
+    Optional<User> findByUserName(String userName);
 
     /**
      * Find user by email
      * @param email the email to search for
-     * @return User entity or null if not found
+     * @return the enabled user, or empty if there is none
      */
-    User findByEmail(String email);
+    Optional<User> findByEmail(String email);
 
     /**
      * Find user by ID
      * @param id the user ID
-     * @return User entity or null if not found
+     * @return the user, or empty if there is none
      */
-    User findById(Long id);
+    Optional<User> findById(Long id);
+
+    /**
+     * Check whether a username is taken, without loading the user
+     * @param userName the username to check
+     * @return true if a user with this username exists
+     */
+    boolean existsByUserName(String userName);
+
+    /**
+     * Check whether an email is taken, without loading the user
+     * @param email the email to check
+     * @return true if a user with this email exists
+     */
+    boolean existsByEmail(String email);
 
     /**
      * Find all users
@@ -41,6 +58,35 @@ public interface UserDao {
      */
     List<User> findAll();
 
+    /**
+     * Find which of the given usernames are already taken, ignoring case
+     * @param userNames usernames to check
+     * @return normalized forms (see User#normalize) of the usernames that exist
+     */
+    Set<String> findExistingUserNames(Collection<String> userNames);
+
+    /**
+     * Find which of the given emails are already registered, ignoring case
+     * @param emails emails to check
+     * @return normalized forms (see User#normalize) of the emails that exist
+     */
+    Set<String> findExistingEmails(Collection<String> emails);
+
+    /**
+     * Find the usernames of the most recently registered or updated enabled users
+     * @param limit maximum number of usernames
+     * @return usernames, most recent first
+     */
+    List<String> findRecentUserNames(int limit);
+
+    /**
+     * Insert new users as JDBC batches, then flush and clear the persistence context.
+     * Publishes one UsersChangedEvent for the batch rather than one event per user.
+     * Must be called inside a transaction; roles must already be attached.
+     * @param users new users without IDs
+     */
+    void persistAll(List<User> users);
+
     /**
      * Save user
      * @param theUser the user to save
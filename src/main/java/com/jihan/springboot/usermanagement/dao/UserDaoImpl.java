@@ -1,16 +1,22 @@
 package com.jihan.springboot.usermanagement.dao;
 
 import com.jihan.springboot.usermanagement.entity.User;
+import com.jihan.springboot.usermanagement.event.UserChangedEvent;
+import com.jihan.springboot.usermanagement.event.UsersChangedEvent;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.NoResultException;
-import jakarta.persistence.TypedQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Implementation of UserDao interface
@@ -18,81 +24,136 @@ import java.util.List;
  * This DAO implementation provides data access methods for User entity
  * using JPA EntityManager.
  * 
+ * Every method is timed as {@code user.dao{class, method}}; the SLO buckets are
+ * set by {@code management.metrics.distribution.slo.user.dao}.
+ * 
  * @author Jihan
  * @version 1.0.0
  */
 @Repository
+@Timed(value = "user.dao", description = "Time spent in UserDao methods")
 public class UserDaoImpl implements UserDao {
 
 	private static final Logger logger = LoggerFactory.getLogger(UserDaoImpl.class);
 
 	private final EntityManager entityManager;
+	private final ApplicationEventPublisher eventPublisher;
 
 	@Autowired
-	public UserDaoImpl(EntityManager theEntityManager) {
+	public UserDaoImpl(EntityManager theEntityManager, ApplicationEventPublisher eventPublisher) {
 		this.entityManager = theEntityManager;
+		this.eventPublisher = eventPublisher;
 	}
 
 	@Override
-	public User findByUserName(String theUserName) {
+	public Optional<User> findByUserName(String theUserName) {
 		logger.debug("Finding user by username: {}", theUserName);
-		
-		try {
-			TypedQuery<User> theQuery = entityManager.createQuery(
-				"from User where userName=:uName and enabled=true", User.class);
-			theQuery.setParameter("uName", theUserName);
-			return theQuery.getSingleResult();
-		} catch (NoResultException e) {
-			logger.debug("No user found with username: {}", theUserName);
-			return null;
-		} catch (Exception e) {
-			logger.error("Error finding user by username: {}", theUserName, e);
-			return null;
-		}
+
+		// a miss is an empty list rather than a NoResultException, so unknown
+		// usernames (failed logins, availability checks) cost no stack trace;
+		// a list rather than a stream, which would outlive the shared
+		// EntityManager when called outside a transaction
+		return entityManager.createNamedQuery(User.FIND_BY_USERNAME, User.class)
+			.setParameter("uName", User.normalize(theUserName))
+			.setMaxResults(1)
+			.getResultList()
+			.stream()
+			.findFirst();
 	}
 
 	@Override
-	public User findByEmail(String email) {
+	public Optional<User> findByEmail(String email) {
 		logger.debug("Finding user by email: {}", email);
-		
-		try {
-			TypedQuery<User> theQuery = entityManager.createQuery(
-				"from User where email=:email and enabled=true", User.class);
-			theQuery.setParameter("email", email);
-			return theQuery.getSingleResult();
-		} catch (NoResultException e) {
-			logger.debug("No user found with email: {}", email);
-			return null;
-		} catch (Exception e) {
-			logger.error("Error finding user by email: {}", email, e);
-			return null;
-		}
+
+		return entityManager.createNamedQuery(User.FIND_BY_EMAIL, User.class)
+			.setParameter("email", User.normalize(email))
+			.setMaxResults(1)
+			.getResultList()
+			.stream()
+			.findFirst();
 	}
 
 	@Override
-	public User findById(Long id) {
+	public Optional<User> findById(Long id) {
 		logger.debug("Finding user by ID: {}", id);
-		
-		try {
-			return entityManager.find(User.class, id);
-		} catch (Exception e) {
-			logger.error("Error finding user by ID: {}", id, e);
-			return null;
-		}
+
+		return Optional.ofNullable(entityManager.find(User.class, id));
+	}
+
+	@Override
+	public boolean existsByUserName(String userName) {
+		logger.debug("Checking if username exists: {}", userName);
+
+		// exists projection: answered from the unique index, no entity or roles are loaded
+		Object exists = entityManager.createNamedQuery(User.EXISTS_BY_USERNAME)
+			.setParameter("uName", User.normalize(userName))
+			.getSingleResult();
+		return Boolean.TRUE.equals(exists);
+	}
+
+	@Override
+	public boolean existsByEmail(String email) {
+		logger.debug("Checking if email exists: {}", email);
+
+		Object exists = entityManager.createNamedQuery(User.EXISTS_BY_EMAIL)
+			.setParameter("email", User.normalize(email))
+			.getSingleResult();
+		return Boolean.TRUE.equals(exists);
 	}
 
 	@Override
 	public List<User> findAll() {
 		logger.debug("Finding all users");
-		
-		try {
-			TypedQuery<User> theQuery = entityManager.createQuery(
-				"from User where enabled=true order by userName", User.class);
-			return theQuery.getResultList();
-		} catch (Exception e) {
-			logger.error("Error finding all users", e);
-			return List.of();
+
+		return entityManager.createNamedQuery(User.FIND_ALL_ENABLED, User.class)
+			.getResultList();
+	}
+
+	@Override
+	public Set<String> findExistingUserNames(Collection<String> userNames) {
+		if (userNames.isEmpty()) {
+			return Set.of();
+		}
+		return new HashSet<>(entityManager.createNamedQuery(User.FIND_EXISTING_USERNAMES, String.class)
+			.setParameter("uNames", userNames.stream().map(User::normalize).toList())
+			.getResultList());
+	}
+
+	@Override
+	public Set<String> findExistingEmails(Collection<String> emails) {
+		if (emails.isEmpty()) {
+			return Set.of();
 		}
+		return new HashSet<>(entityManager.createNamedQuery(User.FIND_EXISTING_EMAILS, String.class)
+			.setParameter("emails", emails.stream().map(User::normalize).toList())
+			.getResultList());
+	}
+
+	@Override
+	public List<String> findRecentUserNames(int limit) {
+		logger.debug("Finding {} most recently updated usernames", limit);
+
+		return entityManager.createNamedQuery(User.FIND_RECENT_USERNAMES, String.class)
+			.setMaxResults(limit)
+			.getResultList();
+	}
+
+	@Override
+	public void persistAll(List<User> users) {
+		logger.debug("Persisting {} users", users.size());
+
+		// pooled sequence ids are assigned in memory, so the inserts are
+		// queued and sent in hibernate.jdbc.batch_size batches on flush
+		for (User user : users) {
+			entityManager.persist(user);
+		}
+		entityManager.flush();
+
+		// one event for the whole batch: listeners refresh once, not once per row
+		eventPublisher.publishEvent(new UsersChangedEvent(
+			users.stream().map(User::getId).toList(),
+			users.stream().map(User::getUserName).toList()));
+		entityManager.clear();
 	}
 
 	@Override
@@ -100,11 +161,10 @@ public class UserDaoImpl implements UserDao {
 	public User save(User theUser) {
 		logger.debug("Saving user: {}", theUser.getUserName());
 		
-		try {
-			return entityManager.merge(theUser);
-		} catch (Exception e) {
-			logger.error("Error saving user: {}", theUser.getUserName(), e);
-			throw e;
-		}
+		// pooled sequence ids: merge only schedules the insert, so a duplicate
+		// surfaces on flush or commit, where the caller translates it
+		User savedUser = entityManager.merge(theUser);
+		eventPublisher.publishEvent(new UserChangedEvent(savedUser.getId(), savedUser.getUserName()));
+		return savedUser;
 	}
 }
@@ -0,0 +1,68 @@
+package com.jihan.springboot.usermanagement.dao;
+
+import com.jihan.springboot.usermanagement.dto.UserDto;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Read-only query interface for user listings
+ * 
+ * Projects users and their role names straight into {@link UserDto} with a fixed
+ * number of statements, so listings never load managed User entities or fire a
+ * role select per user.
+ * 
+ * @author Jihan
+ * @version 1.0.0
+ */
+public interface UserQueryDao {
+
+    /**
+     * Find all enabled users with their role names in a single query
+     * @return user DTOs ordered by username
+     */
+    List<UserDto> findAll();
+
+    /**
+     * Find one user with their role names in a single query
+     * @param id the user ID
+     * @return user DTO or null if not found
+     */
+    UserDto findById(Long id);
+
+    /**
+     * Find users with their role names by ID, using one query for the users and
+     * one for their role names
+     * @param ids user IDs
+     * @return user DTOs of the IDs that exist, in ID order
+     */
+    List<UserDto> findByIds(Collection<Long> ids);
+
+    /**
+     * Find one keyset page of enabled users, using one query for the users and one
+     * for the role names of that page
+     * @param afterUserName exclusive cursor, or null for the first page
+     * @param limit maximum number of users to return
+     * @return user DTOs ordered by username
+     */
+    List<UserDto> findPage(String afterUserName, int limit);
+
+    /**
+     * Stream all enabled users with their role names in username order, reading
+     * through a forward-only cursor. Must be consumed inside a transaction, and the
+     * stream must be closed.
+     * @param fetchSize number of rows the driver fetches per round trip
+     * @return stream of user DTOs
+     */
+    Stream<UserDto> streamAll(int fetchSize);
+
+    /**
+     * Visit every user, enabled or not, with their role names, reading through a
+     * forward-only cursor. Must be called inside a transaction.
+     * @param fetchSize number of rows the driver fetches per round trip
+     * @param consumer receives each user once, in ID order
+     */
+    void scanAll(int fetchSize, Consumer<UserDto> consumer);
+}
@@ -0,0 +1,221 @@
+package com.jihan.springboot.usermanagement.dao;
+
+import com.jihan.springboot.usermanagement.dto.UserDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Implementation of UserQueryDao interface
+ * 
+ * Uses JPQL tuple projections, so results are plain values: nothing is attached to
+ * the persistence context and no dirty-checking snapshots are taken.
+ * 
+ * @author Jihan
+ * @version 1.0.0
+ */
+@Repository
+public class UserQueryDaoImpl implements UserQueryDao {
+
+	private static final Logger logger = LoggerFactory.getLogger(UserQueryDaoImpl.class);
+
+	private static final String USER_COLUMNS =
+		"select u.id as id, u.userName as userName, u.firstName as firstName, "
+		+ "u.lastName as lastName, u.email as email, u.enabled as enabled";
+
+	private final EntityManager entityManager;
+
+	@Autowired
+	public UserQueryDaoImpl(EntityManager theEntityManager) {
+		this.entityManager = theEntityManager;
+	}
+
+	@Override
+	public List<UserDto> findAll() {
+		logger.debug("Finding all users with roles");
+
+		// one row per user and role; rows of a user are adjacent because usernames are unique
+		List<Tuple> rows = entityManager.createQuery(
+				USER_COLUMNS + ", r.name as roleName from User u left join u.roles r "
+				+ "where u.enabled = true order by u.userName, r.name", Tuple.class)
+			.getResultList();
+		return groupByUser(rows);
+	}
+
+	@Override
+	public UserDto findById(Long id) {
+		logger.debug("Finding user with roles by ID: {}", id);
+
+		List<Tuple> rows = entityManager.createQuery(
+				USER_COLUMNS + ", r.name as roleName from User u left join u.roles r "
+				+ "where u.id = :id order by r.name", Tuple.class)
+			.setParameter("id", id)
+			.getResultList();
+		List<UserDto> users = groupByUser(rows);
+		return users.isEmpty() ? null : users.get(0);
+	}
+
+	@Override
+	public List<UserDto> findPage(String afterUserName, int limit) {
+		logger.debug("Finding page of {} users with roles after: {}", limit, afterUserName);
+
+		// the page limit must apply to users, not to user-role rows, so roles are read separately
+		TypedQuery<Tuple> userQuery;
+		if (afterUserName == null) {
+			userQuery = entityManager.createQuery(
+				USER_COLUMNS + " from User u where u.enabled = true order by u.userName", Tuple.class);
+		} else {
+			userQuery = entityManager.createQuery(
+				USER_COLUMNS + " from User u where u.enabled = true and u.userName > :cursor "
+				+ "order by u.userName", Tuple.class);
+			userQuery.setParameter("cursor", afterUserName);
+		}
+		return withRoles(userQuery.setMaxResults(limit).getResultList());
+	}
+
+	@Override
+	public List<UserDto> findByIds(Collection<Long> ids) {
+		logger.debug("Finding {} users with roles by ID", ids.size());
+
+		if (ids.isEmpty()) {
+			return List.of();
+		}
+		return withRoles(entityManager.createQuery(
+				USER_COLUMNS + " from User u where u.id in :ids order by u.id", Tuple.class)
+			.setParameter("ids", ids)
+			.getResultList());
+	}
+
+	/**
+	 * Turn user rows into DTOs and fill in their role names with one more query
+	 */
+	private List<UserDto> withRoles(List<Tuple> userRows) {
+		if (userRows.isEmpty()) {
+			return List.of();
+		}
+
+		Map<Long, UserDto> usersById = new LinkedHashMap<>();
+		for (Tuple row : userRows) {
+			UserDto user = toDto(row);
+			usersById.put(user.getId(), user);
+		}
+
+		List<Tuple> roleRows = entityManager.createQuery(
+				"select u.id as id, r.name as roleName from User u join u.roles r "
+				+ "where u.id in :ids order by r.name", Tuple.class)
+			.setParameter("ids", usersById.keySet())
+			.getResultList();
+		for (Tuple row : roleRows) {
+			usersById.get(row.get("id", Long.class)).getRoles().add(row.get("roleName", String.class));
+		}
+		return new ArrayList<>(usersById.values());
+	}
+
+	@Override
+	public Stream<UserDto> streamAll(int fetchSize) {
+		logger.debug("Streaming all users with roles, fetch size: {}", fetchSize);
+
+		return groupAdjacent(entityManager.createQuery(
+				USER_COLUMNS + ", r.name as roleName from User u left join u.roles r "
+				+ "where u.enabled = true order by u.userName, r.name", Tuple.class)
+			.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+			.getResultStream());
+	}
+
+	@Override
+	public void scanAll(int fetchSize, Consumer<UserDto> consumer) {
+		logger.debug("Scanning all users with fetch size: {}", fetchSize);
+
+		try (Stream<UserDto> users = groupAdjacent(entityManager.createQuery(
+				USER_COLUMNS + ", r.name as roleName from User u left join u.roles r "
+				+ "order by u.id, r.name", Tuple.class)
+			.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+			.getResultStream())) {
+			users.forEachOrdered(consumer);
+		}
+	}
+
+	/**
+	 * Same folding as groupByUser, but lazily: each user is handed out as soon as
+	 * the first row of the next user arrives. Closing the result closes the rows.
+	 */
+	private Stream<UserDto> groupAdjacent(Stream<Tuple> rows) {
+		Iterator<Tuple> iterator = rows.iterator();
+		Spliterator<UserDto> users = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+
+			private Tuple pending;
+
+			@Override
+			public boolean tryAdvance(Consumer<? super UserDto> action) {
+				Tuple row = pending != null ? pending : (iterator.hasNext() ? iterator.next() : null);
+				pending = null;
+				if (row == null) {
+					return false;
+				}
+				UserDto user = toDto(row);
+				addRole(user, row);
+				while (iterator.hasNext()) {
+					Tuple next = iterator.next();
+					if (!user.getId().equals(next.get("id", Long.class))) {
+						pending = next;
+						break;
+					}
+					addRole(user, next);
+				}
+				action.accept(user);
+				return true;
+			}
+		};
+		return StreamSupport.stream(users, false).onClose(rows::close);
+	}
+
+	private static void addRole(UserDto user, Tuple row) {
+		String roleName = row.get("roleName", String.class);
+		if (roleName != null) {
+			user.getRoles().add(roleName);
+		}
+	}
+
+	private List<UserDto> groupByUser(List<Tuple> rows) {
+		List<UserDto> users = new ArrayList<>();
+		UserDto current = null;
+		for (Tuple row : rows) {
+			Long id = row.get("id", Long.class);
+			if (current == null || !current.getId().equals(id)) {
+				current = toDto(row);
+				users.add(current);
+			}
+			addRole(current, row);
+		}
+		return users;
+	}
+
+	private UserDto toDto(Tuple row) {
+		return new UserDto(
+			row.get("id", Long.class),
+			row.get("userName", String.class),
+			row.get("firstName", String.class),
+			row.get("lastName", String.class),
+			row.get("email", String.class),
+			row.get("enabled", Boolean.class),
+			new LinkedHashSet<>());
+	}
+}
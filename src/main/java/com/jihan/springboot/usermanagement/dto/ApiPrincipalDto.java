@@ -0,0 +1,35 @@
+package com.jihan.springboot.usermanagement.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The caller of an API request as carried by its token
+ * 
+ * @author Jihan
+ * @version 1.0.0
+ */
+public class ApiPrincipalDto {
+
+    private final String username;
+    private final List<String> authorities;
+    private final Instant tokenExpiresAt;
+
+    public ApiPrincipalDto(String username, List<String> authorities, Instant tokenExpiresAt) {
+        this.username = username;
+        this.authorities = authorities;
+        this.tokenExpiresAt = tokenExpiresAt;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public List<String> getAuthorities() {
+        return authorities;
+    }
+
+    public Instant getTokenExpiresAt() {
+        return tokenExpiresAt;
+    }
+}
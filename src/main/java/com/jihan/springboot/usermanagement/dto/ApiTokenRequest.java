@@ -0,0 +1,50 @@
+package com.jihan.springboot.usermanagement.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+
+/**
+ * Credentials an API client exchanges for a token
+ * 
+ * @author Jihan
+ * @version 1.0.0
+ */
+public class ApiTokenRequest {
+
+    @NotEmpty(message = "Username is required")
+    private String username;
+
+    @NotEmpty(message = "Password is required")
+    private String password;
+
+    /**
+     * Default constructor
+     */
+    public ApiTokenRequest() {
+    }
+
+    public ApiTokenRequest(String username, String password) {
+        this.username = username;
+        this.password = password;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    @Override
+    public String toString() {
+        return "ApiTokenRequest{" + "username='" + username + '\'' + '}';
+    }
+}
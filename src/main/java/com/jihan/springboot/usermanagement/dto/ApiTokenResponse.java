@@ -0,0 +1,44 @@
+package com.jihan.springboot.usermanagement.dto;
+
+import java.time.Instant;
+
+/**
+ * A token issued to an API client, to be sent as {@code Authorization: Bearer <accessToken>}
+ * 
+ * @author Jihan
+ * @version 1.0.0
+ */
+public class ApiTokenResponse {
+
+    private final String accessToken;
+    private final String tokenType = "Bearer";
+    private final long expiresIn;
+    private final Instant expiresAt;
+
+    /**
+     * @param accessToken the signed token
+     * @param expiresIn seconds until the token expires
+     * @param expiresAt when the token expires
+     */
+    public ApiTokenResponse(String accessToken, long expiresIn, Instant expiresAt) {
+        this.accessToken = accessToken;
+        this.expiresIn = expiresIn;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getAccessToken() {
+        return accessToken;
+    }
+
+    public String getTokenType() {
+        return tokenType;
+    }
+
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -0,0 +1,100 @@
+package com.jihan.springboot.usermanagement.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk user import
+ * 
+ * Lists every row that was not imported together with the reason, and the
+ * overall throughput.
+ * 
+ * @author Jihan
+ * @version 1.0.0
+ */
+public class ImportReport {
+
+    private final int totalRows;
+    private final int imported;
+    private final List<RowError> errors;
+    private final long durationMillis;
+
+    /**
+     * Constructor with all fields
+     */
+    public ImportReport(int totalRows, int imported, List<RowError> errors, long durationMillis) {
+        this.totalRows = totalRows;
+        this.imported = imported;
+        this.errors = errors;
+        this.durationMillis = durationMillis;
+    }
+
+    public int getTotalRows() {
+        return totalRows;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public int getFailed() {
+        return errors.size();
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * Imported rows per second of wall-clock time
+     */
+    public double getRowsPerSecond() {
+        return durationMillis == 0 ? imported : imported * 1000.0 / durationMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportReport{" +
+                "totalRows=" + totalRows +
+                ", imported=" + imported +
+                ", failed=" + errors.size() +
+                ", durationMillis=" + durationMillis +
+                '}';
+    }
+
+    /**
+     * A row that could not be imported
+     */
+    public static class RowError {
+
+        private final int row;
+        private final String username;
+        private final String message;
+
+        /**
+         * @param row 1-based data row number in the uploaded file
+         * @param username the username on that row, if any
+         * @param message why the row was rejected
+         */
+        public RowError(int row, String username, String message) {
+            this.row = row;
+            this.username = username;
+            this.message = message;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
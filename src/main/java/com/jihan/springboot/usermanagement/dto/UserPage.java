@@ -0,0 +1,49 @@
+package com.jihan.springboot.usermanagement.dto;
+
+import java.util.List;
+
+/**
+ * One page of users from a keyset (cursor) paginated listing or search
+ * 
+ * The cursor marks the last user on the page (the username for listings, an
+ * opaque position for searches); pass it back to fetch the next page. Unlike
+ * offset paging, every page costs the same no matter how deep it is.
+ * 
+ * @author Jihan
+ * @version 1.0.0
+ */
+public class UserPage {
+
+    private final List<UserDto> content;
+    private final String nextCursor;
+
+    /**
+     * Constructor with all fields
+     * @param content the users on this page
+     * @param nextCursor cursor for the next page, or null if this is the last page
+     */
+    public UserPage(List<UserDto> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<UserDto> getContent() {
+        return content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isLast() {
+        return nextCursor == null;
+    }
+
+    @Override
+    public String toString() {
+        return "UserPage{" +
+                "size=" + content.size() +
+                ", nextCursor='" + nextCursor + '\'' +
+                '}';
+    }
+}
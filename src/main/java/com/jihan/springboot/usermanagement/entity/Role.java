@@ -3,6 +3,8 @@ package com.jihan.springboot.usermanagement.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Role Entity representing the role table in the database
@@ -16,10 +18,20 @@ import jakarta.validation.constraints.Size;
 @Table(name = "roles", indexes = {
     @Index(name = "idx_role_name", columnList = "name")
 })
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "roles")
+@NamedQuery(name = Role.FIND_BY_NAME, query = "from Role where name = :roleName")
+@NamedQuery(name = Role.FIND_ALL, query = "from Role order by id")
 public class Role {
 
+    /**
+     * Named queries, parsed and translated once at startup
+     */
+    public static final String FIND_BY_NAME = "Role.findByName";
+    public static final String FIND_ALL = "Role.findAll";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "roles_id_gen")
+    @SequenceGenerator(name = "roles_id_gen", sequenceName = "roles_id_seq", allocationSize = 1)
     @Column(name = "id")
     private Long id;
 
@@ -4,8 +4,11 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.Locale;
 
 /**
  * User Entity representing the user table in the database
@@ -18,17 +21,61 @@ import java.util.Collection;
  */
 @Entity
 @Table(name = "users", indexes = {
-    @Index(name = "idx_user_username", columnList = "username"),
-    @Index(name = "idx_user_email", columnList = "email")
+    @Index(name = "idx_user_username", columnList = "username")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = User.USERNAME_CONSTRAINT, columnNames = "username_normalized"),
+    @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email_normalized")
 })
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NamedQuery(name = User.FIND_BY_USERNAME,
+    query = "from User where normalizedUserName = :uName and enabled = true")
+@NamedQuery(name = User.FIND_BY_EMAIL,
+    query = "from User where normalizedEmail = :email and enabled = true")
+@NamedQuery(name = User.FIND_ALL_ENABLED,
+    query = "from User where enabled = true order by userName")
+@NamedQuery(name = User.FIND_EXISTING_USERNAMES,
+    query = "select u.normalizedUserName from User u where u.normalizedUserName in :uNames")
+@NamedQuery(name = User.FIND_EXISTING_EMAILS,
+    query = "select u.normalizedEmail from User u where u.normalizedEmail in :emails")
+@NamedQuery(name = User.FIND_RECENT_USERNAMES,
+    query = "select u.userName from User u where u.enabled = true order by u.updatedAt desc")
+@NamedNativeQuery(name = User.EXISTS_BY_USERNAME,
+    query = "select exists(select 1 from users where username_normalized = :uName)")
+@NamedNativeQuery(name = User.EXISTS_BY_EMAIL,
+    query = "select exists(select 1 from users where email_normalized = :email)")
 public class User {
 
+    /**
+     * Named queries, parsed and translated once when the persistence unit starts
+     * instead of on every call
+     */
+    public static final String FIND_BY_USERNAME = "User.findByUserName";
+    public static final String FIND_BY_EMAIL = "User.findByEmail";
+    public static final String FIND_ALL_ENABLED = "User.findAllEnabled";
+    public static final String FIND_EXISTING_USERNAMES = "User.findExistingUserNames";
+    public static final String FIND_EXISTING_EMAILS = "User.findExistingEmails";
+    public static final String FIND_RECENT_USERNAMES = "User.findRecentUserNames";
+    public static final String EXISTS_BY_USERNAME = "User.existsByUserName";
+    public static final String EXISTS_BY_EMAIL = "User.existsByEmail";
+
+    /**
+     * Unique constraint names, used to tell which column a duplicate insert violated
+     */
+    public static final String USERNAME_CONSTRAINT = "uk_users_username";
+    public static final String EMAIL_CONSTRAINT = "uk_users_email";
+
+    /**
+     * Pooled sequence ids: one sequence call reserves 50 ids, so inserts can be
+     * JDBC-batched (IDENTITY needs a round trip per row for the generated key).
+     * allocationSize must match the INCREMENT BY of users_id_seq.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_gen")
+    @SequenceGenerator(name = "users_id_gen", sequenceName = "users_id_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
-    @Column(name = "username", unique = true, nullable = false, length = 50)
+    @Column(name = "username", nullable = false, length = 50)
     @NotEmpty(message = "Username is required")
     @Size(min = 3, max = 50, message = "Username must be between 3 and 50 characters")
     private String userName;
@@ -50,12 +97,22 @@ public class User {
     @Size(max = 64, message = "Last name cannot exceed 64 characters")
     private String lastName;
 
-    @Column(name = "email", unique = true, nullable = false, length = 64)
+    @Column(name = "email", nullable = false, length = 64)
     @NotEmpty(message = "Email is required")
     @Email(message = "Please provide a valid email address")
     @Size(max = 64, message = "Email cannot exceed 64 characters")
     private String email;
 
+    /**
+     * Lookup keys maintained by the lifecycle callbacks; every lookup and both
+     * unique constraints use these, so matching is case-insensitive and indexed
+     */
+    @Column(name = "username_normalized", nullable = false, length = 50)
+    private String normalizedUserName;
+
+    @Column(name = "email_normalized", nullable = false, length = 64)
+    private String normalizedEmail;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -63,6 +120,7 @@ public class User {
     private LocalDateTime updatedAt;
 
     @ManyToMany(fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users.roles")
     @JoinTable(name = "users_roles",
             joinColumns = @JoinColumn(name = "user_id"),
             inverseJoinColumns = @JoinColumn(name = "role_id"))
@@ -81,6 +139,7 @@ public class User {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        normalizeLookupKeys();
     }
 
     /**
@@ -89,6 +148,22 @@ public class User {
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        normalizeLookupKeys();
+    }
+
+    private void normalizeLookupKeys() {
+        normalizedUserName = normalize(userName);
+        normalizedEmail = normalize(email);
+    }
+
+    /**
+     * Normalize a username or email for lookup: trimmed and lower-cased.
+     * Must match lower(trim(...)) used by the schema migration.
+     * @param value raw username or email, may be null
+     * @return the lookup key, or null if value is null
+     */
+    public static String normalize(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
     }
 
     public User(String userName, String password, boolean enabled) {
@@ -161,6 +236,14 @@ public class User {
         this.email = email;
     }
 
+    public String getNormalizedUserName() {
+        return normalizedUserName;
+    }
+
+    public String getNormalizedEmail() {
+        return normalizedEmail;
+    }
+
     public Collection<Role> getRoles() {
         return roles;
     }
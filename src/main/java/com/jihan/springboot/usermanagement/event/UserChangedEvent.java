@@ -0,0 +1,34 @@
+package com.jihan.springboot.usermanagement.event;
+
+/**
+ * Application event published whenever a user row is inserted or updated
+ *
+ * Listeners that keep derived copies of user data (caches, indexes) use this
+ * event to invalidate or refresh their copy once the change is committed.
+ *
+ * @author Jihan
+ * @version 1.0.0
+ */
+public class UserChangedEvent {
+
+    private final Long userId;
+    private final String userName;
+
+    public UserChangedEvent(Long userId, String userName) {
+        this.userId = userId;
+        this.userName = userName;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    @Override
+    public String toString() {
+        return "UserChangedEvent{" + "userId=" + userId + ", userName='" + userName + '\'' + '}';
+    }
+}
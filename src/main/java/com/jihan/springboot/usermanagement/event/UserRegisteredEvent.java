@@ -0,0 +1,34 @@
+package com.jihan.springboot.usermanagement.event;
+
+/**
+ * Application event published after a self-service registration has been committed
+ *
+ * Unlike {@link UserChangedEvent}, which also covers imports and updates, this
+ * event marks an account created through the registration form or API.
+ *
+ * @author Jihan
+ * @version 1.0.0
+ */
+public class UserRegisteredEvent {
+
+    private final Long userId;
+    private final String userName;
+
+    public UserRegisteredEvent(Long userId, String userName) {
+        this.userId = userId;
+        this.userName = userName;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    @Override
+    public String toString() {
+        return "UserRegisteredEvent{" + "userId=" + userId + ", userName='" + userName + '\'' + '}';
+    }
+}
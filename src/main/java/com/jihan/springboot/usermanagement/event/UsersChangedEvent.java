@@ -0,0 +1,36 @@
+package com.jihan.springboot.usermanagement.event;
+
+import java.util.List;
+
+/**
+ * Application event published once for a batch of users inserted or updated together
+ *
+ * The bulk counterpart of {@link UserChangedEvent}, used by imports so that
+ * listeners refresh their derived copies once per batch rather than once per row.
+ *
+ * @author Jihan
+ * @version 1.0.0
+ */
+public class UsersChangedEvent {
+
+    private final List<Long> userIds;
+    private final List<String> userNames;
+
+    public UsersChangedEvent(List<Long> userIds, List<String> userNames) {
+        this.userIds = List.copyOf(userIds);
+        this.userNames = List.copyOf(userNames);
+    }
+
+    public List<Long> getUserIds() {
+        return userIds;
+    }
+
+    public List<String> getUserNames() {
+        return userNames;
+    }
+
+    @Override
+    public String toString() {
+        return "UsersChangedEvent{" + "users=" + userIds.size() + '}';
+    }
+}
@@ -0,0 +1,36 @@
+package com.jihan.springboot.usermanagement.event;
+
+import java.util.List;
+
+/**
+ * Application event published after a batch of imported accounts has been committed
+ *
+ * The bulk import's counterpart of {@link UserRegisteredEvent}: every account
+ * it creates is a registration too, reported once per committed batch.
+ *
+ * @author Jihan
+ * @version 1.0.0
+ */
+public class UsersImportedEvent {
+
+    private final List<Long> userIds;
+    private final List<String> userNames;
+
+    public UsersImportedEvent(List<Long> userIds, List<String> userNames) {
+        this.userIds = List.copyOf(userIds);
+        this.userNames = List.copyOf(userNames);
+    }
+
+    public List<Long> getUserIds() {
+        return userIds;
+    }
+
+    public List<String> getUserNames() {
+        return userNames;
+    }
+
+    @Override
+    public String toString() {
+        return "UsersImportedEvent{" + "users=" + userIds.size() + '}';
+    }
+}
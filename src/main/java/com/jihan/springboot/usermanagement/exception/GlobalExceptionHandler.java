@@ -1,7 +1,9 @@
 package com.jihan.springboot.usermanagement.exception;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -47,6 +49,20 @@ public class GlobalExceptionHandler {
         return "redirect:/register/showRegistrationForm";
     }
 
+    /**
+     * Handle HashingCapacityExceededException
+     */
+    @ExceptionHandler(HashingCapacityExceededException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public String handleHashingCapacityExceededException(HashingCapacityExceededException ex,
+                                                         HttpServletResponse response, Model model) {
+        logger.warn("Password hashing capacity exceeded: {}", ex.getMessage());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+        model.addAttribute("errorMessage", "The service is busy right now. Please try again shortly.");
+        model.addAttribute("errorCode", "SERVICE_UNAVAILABLE");
+        return "error/503";
+    }
+
     /**
      * Handle general exceptions
      */
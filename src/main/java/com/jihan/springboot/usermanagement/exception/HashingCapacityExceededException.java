@@ -0,0 +1,32 @@
+package com.jihan.springboot.usermanagement.exception;
+
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+
+/**
+ * Exception thrown when the password hashing pool is saturated
+ *
+ * Extends {@link InternalAuthenticationServiceException} so that a rejected login
+ * is not retried against other authentication providers and reaches the
+ * authentication failure handler as-is.
+ *
+ * @author Jihan
+ * @version 1.0.0
+ */
+public class HashingCapacityExceededException extends InternalAuthenticationServiceException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public HashingCapacityExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Number of seconds the client should wait before retrying
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
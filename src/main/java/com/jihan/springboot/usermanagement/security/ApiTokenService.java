@@ -0,0 +1,345 @@
+package com.jihan.springboot.usermanagement.security;
+
+import com.jihan.springboot.usermanagement.entity.User;
+import com.jihan.springboot.usermanagement.event.UserChangedEvent;
+import com.jihan.springboot.usermanagement.event.UsersChangedEvent;
+import com.jihan.springboot.usermanagement.service.RoleRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Issues and verifies short-lived signed tokens for API clients
+ *
+ * A token is {@code keyId.payload.signature}, all base64url: the payload holds
+ * the username, the authority names, issue and expiry time and a random token id,
+ * and the signature is HMAC-SHA256 over {@code keyId.payload}. Verifying one
+ * needs no database and no session, only the key and the in-memory revocation state.
+ *
+ * Keys rotate by configuration: new tokens are signed with the active key, and
+ * every configured key is accepted, so the previous key stays listed until the
+ * tokens it signed have expired. Revocations are held in memory on each node and
+ * only as long as the revoked tokens could still be valid.
+ *
+ * @author Jihan
+ * @version 1.0.0
+ */
+public class ApiTokenService {
+
+    /**
+     * HMAC-SHA256 keys shorter than its block output are rejected
+     */
+    public static final int MIN_KEY_BYTES = 32;
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiTokenService.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final char SEPARATOR = '.';
+    private static final String FIELD_SEPARATOR = "\n";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final String activeKeyId;
+    private final Map<String, SigningKey> keys;
+    private final Duration ttl;
+    private final RoleRegistry roleRegistry;
+    private final Clock clock;
+    private final SecureRandom random = new SecureRandom();
+
+    /** token id to expiry (epoch millis) of tokens revoked individually */
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    /** normalized username to the time before which all of the user's tokens are void */
+    private final Map<String, Long> notBefore = new ConcurrentHashMap<>();
+
+    private final Counter validCounter;
+    private final Counter invalidCounter;
+    private final Counter expiredCounter;
+    private final Counter revokedCounter;
+
+    /**
+     * @param activeKeyId id of the key new tokens are signed with
+     * @param keys all accepted keys by id, including the active one
+     * @param ttl lifetime of issued tokens
+     * @param roleRegistry source of the canonical authorities and role masks
+     * @param meterRegistry registry for the verification counters
+     * @param clock clock for issue and expiry times
+     */
+    public ApiTokenService(String activeKeyId, Map<String, byte[]> keys, Duration ttl, RoleRegistry roleRegistry,
+                           MeterRegistry meterRegistry, Clock clock) {
+        if (!keys.containsKey(activeKeyId)) {
+            throw new IllegalStateException("API token signing key '" + activeKeyId + "' is not configured");
+        }
+        Map<String, SigningKey> signingKeys = new LinkedHashMap<>();
+        keys.forEach((id, secret) -> {
+            if (id.isEmpty() || id.indexOf(SEPARATOR) >= 0) {
+                throw new IllegalStateException("Invalid API token key id: '" + id + "'");
+            }
+            if (secret.length < MIN_KEY_BYTES) {
+                throw new IllegalStateException("API token key '" + id + "' must be at least "
+                        + MIN_KEY_BYTES + " bytes");
+            }
+            signingKeys.put(id, new SigningKey(secret));
+        });
+        this.activeKeyId = activeKeyId;
+        this.keys = Map.copyOf(signingKeys);
+        this.ttl = ttl;
+        this.roleRegistry = roleRegistry;
+        this.clock = clock;
+
+        this.validCounter = verificationCounter(meterRegistry, "valid");
+        this.invalidCounter = verificationCounter(meterRegistry, "invalid");
+        this.expiredCounter = verificationCounter(meterRegistry, "expired");
+        this.revokedCounter = verificationCounter(meterRegistry, "revoked");
+        Gauge.builder("api.token.revocations", revokedTokens, Map::size)
+                .description("Individually revoked tokens that have not expired yet")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Generates a random key, for running without configured keys
+     */
+    public static byte[] generateKey() {
+        byte[] key = new byte[MIN_KEY_BYTES];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+
+    /**
+     * Issue a token for an authenticated user
+     * @param username the username
+     * @param authorities the user's authorities
+     * @return the signed token
+     */
+    public ApiToken issue(String username, Collection<? extends GrantedAuthority> authorities) {
+        Instant issuedAt = clock.instant();
+        Instant expiresAt = issuedAt.plus(ttl);
+        byte[] id = new byte[12];
+        random.nextBytes(id);
+        String tokenId = ENCODER.encodeToString(id);
+
+        List<String> authorityNames = authorities.stream().map(GrantedAuthority::getAuthority).toList();
+        String payload = String.join(FIELD_SEPARATOR, username, String.join(",", authorityNames),
+                Long.toString(issuedAt.toEpochMilli()), Long.toString(expiresAt.toEpochMilli()), tokenId);
+
+        String signed = activeKeyId + SEPARATOR + ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        String value = signed + SEPARATOR + ENCODER.encodeToString(keys.get(activeKeyId).sign(signed));
+        return new ApiToken(value, tokenId, username, roleRegistry.authoritiesFor(authorityNames),
+                roleRegistry.effectiveMaskOf(authorityNames), issuedAt, expiresAt);
+    }
+
+    /**
+     * Verify a token presented by a client
+     * @param value the token
+     * @return the token contents, or null if it is malformed, forged, expired or revoked
+     */
+    public ApiToken verify(String value) {
+        int payloadStart = value.indexOf(SEPARATOR);
+        int signatureStart = value.lastIndexOf(SEPARATOR);
+        if (payloadStart <= 0 || signatureStart <= payloadStart) {
+            invalidCounter.increment();
+            return null;
+        }
+        SigningKey key = keys.get(value.substring(0, payloadStart));
+        if (key == null) {
+            // signed with a key that was rotated out
+            invalidCounter.increment();
+            return null;
+        }
+
+        String[] fields;
+        byte[] signature;
+        try {
+            signature = DECODER.decode(value.substring(signatureStart + 1));
+            if (!MessageDigest.isEqual(signature, key.sign(value.substring(0, signatureStart)))) {
+                invalidCounter.increment();
+                return null;
+            }
+            fields = new String(DECODER.decode(value.substring(payloadStart + 1, signatureStart)),
+                    StandardCharsets.UTF_8).split(FIELD_SEPARATOR, -1);
+        } catch (IllegalArgumentException e) {
+            invalidCounter.increment();
+            return null;
+        }
+        if (fields.length != 5) {
+            invalidCounter.increment();
+            return null;
+        }
+
+        String username = fields[0];
+        long issuedAt = Long.parseLong(fields[2]);
+        long expiresAt = Long.parseLong(fields[3]);
+        String tokenId = fields[4];
+
+        if (expiresAt <= clock.millis()) {
+            expiredCounter.increment();
+            return null;
+        }
+        Long userNotBefore = notBefore.get(User.normalize(username));
+        if (revokedTokens.containsKey(tokenId) || (userNotBefore != null && issuedAt < userNotBefore)) {
+            revokedCounter.increment();
+            return null;
+        }
+
+        validCounter.increment();
+        List<String> authorityNames = fields[1].isEmpty() ? List.of() : List.of(fields[1].split(","));
+        return new ApiToken(value, tokenId, username, roleRegistry.authoritiesFor(authorityNames),
+                roleRegistry.effectiveMaskOf(authorityNames), Instant.ofEpochMilli(issuedAt), Instant.ofEpochMilli(expiresAt));
+    }
+
+    /**
+     * Revoke a single token on this node until it expires
+     */
+    public void revoke(ApiToken token) {
+        revokedTokens.put(token.getTokenId(), token.getExpiresAt().toEpochMilli());
+        logger.info("Revoked API token {} of {}", token.getTokenId(), token.getUsername());
+    }
+
+    /**
+     * Void every token issued to the user so far, e.g. after a password change
+     */
+    public void revokeAllFor(String username) {
+        notBefore.put(User.normalize(username), clock.millis());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        // password, enabled flag or roles may have changed: tokens must not outlive that
+        revokeAllFor(event.getUserName());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUsersChanged(UsersChangedEvent event) {
+        event.getUserNames().forEach(this::revokeAllFor);
+    }
+
+    /**
+     * Drop revocations of tokens that have expired anyway
+     */
+    @Scheduled(fixedDelayString = "${app.security.api-token.prune-interval-ms:60000}")
+    public void pruneRevocations() {
+        long now = clock.millis();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        long oldestLiveIssue = now - ttl.toMillis();
+        notBefore.values().removeIf(since -> since <= oldestLiveIssue);
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    private static Counter verificationCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("api.token.verifications")
+                .tag("result", result)
+                .description("API token verifications by outcome")
+                .register(meterRegistry);
+    }
+
+    /**
+     * HMAC key with one initialized Mac per thread, so signing allocates nothing
+     * beyond the result
+     */
+    private static final class SigningKey {
+
+        private final ThreadLocal<Mac> mac;
+
+        private SigningKey(byte[] secret) {
+            SecretKeySpec spec = new SecretKeySpec(secret, ALGORITHM);
+            this.mac = ThreadLocal.withInitial(() -> {
+                try {
+                    Mac instance = Mac.getInstance(ALGORITHM);
+                    instance.init(spec);
+                    return instance;
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException("HMAC-SHA256 is not available", e);
+                }
+            });
+        }
+
+        private byte[] sign(String data) {
+            return mac.get().doFinal(data.getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    /**
+     * Contents of an issued or verified token
+     */
+    public static final class ApiToken implements RoleMaskHolder {
+
+        private final String value;
+        private final String tokenId;
+        private final String username;
+        private final List<GrantedAuthority> authorities;
+        private final long roleMask;
+        private final Instant issuedAt;
+        private final Instant expiresAt;
+
+        private ApiToken(String value, String tokenId, String username, List<GrantedAuthority> authorities,
+                         long roleMask, Instant issuedAt, Instant expiresAt) {
+            this.value = value;
+            this.tokenId = tokenId;
+            this.username = username;
+            this.authorities = authorities;
+            this.roleMask = roleMask;
+            this.issuedAt = issuedAt;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public String getTokenId() {
+            return tokenId;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public List<GrantedAuthority> getAuthorities() {
+            return authorities;
+        }
+
+        @Override
+        public long getRoleMask() {
+            return roleMask;
+        }
+
+        public Instant getIssuedAt() {
+            return issuedAt;
+        }
+
+        public Instant getExpiresAt() {
+            return expiresAt;
+        }
+
+        @Override
+        public String toString() {
+            return "ApiToken{" + "tokenId='" + tokenId + '\'' + ", username='" + username + '\''
+                    + ", expiresAt=" + expiresAt + '}';
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.jihan.springboot.usermanagement.security;
+
+import com.jihan.springboot.usermanagement.exception.HashingCapacityExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Password encoder that runs hashing on a dedicated, bounded thread pool
+ *
+ * BCrypt is CPU bound and deliberately slow. Running it on request threads lets
+ * a login storm occupy every worker, so this encoder hands {@code encode} and
+ * {@code matches} to a fixed pool with a bounded queue and fails fast with
+ * {@link HashingCapacityExceededException} once the queue is full.
+ *
+ * A caller that times out gets the same exception. If its hash is still queued
+ * it is dropped; if it has started it runs to completion, because BCrypt never
+ * checks for interrupts. Such hashes still use their core but their result is
+ * discarded; they are counted as {@code security.password.hashing.abandoned}.
+ *
+ * @author Jihan
+ * @version 1.0.0
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final long retryAfterSeconds;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedCounter;
+    private final Counter abandonedCounter;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity,
+                                  Duration timeout, Duration retryAfter, MeterRegistry meterRegistry) {
+        this(delegate, threads, queueCapacity, timeout, retryAfter, meterRegistry, daemonThreadFactory());
+    }
+
+    /**
+     * @param threadFactory factory for the hashing threads, e.g. a virtual thread factory
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity,
+                                  Duration timeout, Duration retryAfter, MeterRegistry meterRegistry,
+                                  ThreadFactory threadFactory) {
+        this.delegate = delegate;
+        this.timeout = timeout;
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("security.password.hashing.queue.depth", executor, e -> e.getQueue().size())
+                .description("Hashing tasks waiting for a free hashing thread")
+                .register(meterRegistry);
+        Gauge.builder("security.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashing threads currently busy")
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("security.password.hashing")
+                .description("Time spent hashing passwords")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("security.password.hashing")
+                .description("Time spent hashing passwords")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("security.password.hashing.rejected")
+                .description("Hashing requests rejected because the pool was saturated")
+                .register(meterRegistry);
+        this.abandonedCounter = Counter.builder("security.password.hashing.abandoned")
+                .description("Hashes left running after their caller timed out")
+                .register(meterRegistry);
+
+        logger.info("Password hashing pool started with {} threads and queue capacity {}", threads, queueCapacity);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T execute(Timer timer, Supplier<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return task.get();
+                } finally {
+                    timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw rejected("Password hashing queue is full");
+        }
+
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            abandon(future);
+            throw rejected("Password hashing timed out after " + timeout.toMillis() + " ms");
+        } catch (InterruptedException e) {
+            abandon(future);
+            Thread.currentThread().interrupt();
+            throw rejected("Interrupted while waiting for password hashing");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+
+    /**
+     * Drop a hash nobody waits for any more if it has not started; a started one
+     * cannot be stopped and is only counted
+     */
+    private void abandon(Future<?> future) {
+        if (future instanceof Runnable task && executor.remove(task)) {
+            future.cancel(false);
+        } else if (!future.isDone()) {
+            abandonedCounter.increment();
+        }
+    }
+
+    private static ThreadFactory daemonThreadFactory() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("password-hashing-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    private HashingCapacityExceededException rejected(String reason) {
+        rejectedCounter.increment();
+        logger.warn("{} (queue depth {})", reason, executor.getQueue().size());
+        return new HashingCapacityExceededException(reason, retryAfterSeconds);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,46 @@
+package com.jihan.springboot.usermanagement.security;
+
+import java.io.IOException;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
+import org.springframework.stereotype.Component;
+
+import com.jihan.springboot.usermanagement.exception.HashingCapacityExceededException;
+
+@Component
+public class CustomAuthenticationFailureHandler extends SimpleUrlAuthenticationFailureHandler {
+
+    private final LoginMetrics loginMetrics;
+
+    public CustomAuthenticationFailureHandler(LoginMetrics loginMetrics) {
+        super("/login?error=true");
+        this.loginMetrics = loginMetrics;
+    }
+
+    @Override
+    public void onAuthenticationFailure(HttpServletRequest request, HttpServletResponse response,
+                                        AuthenticationException exception) throws IOException, ServletException {
+
+        loginMetrics.recordFailure(LoginMetrics.Channel.FORM, exception);
+
+        // the hashing pool is saturated: tell the client to come back later instead of
+        // reporting bad credentials
+        if (exception instanceof HashingCapacityExceededException capacityException) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(capacityException.getRetryAfterSeconds()));
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write("Login service is busy. Please try again shortly.");
+            return;
+        }
+
+        super.onAuthenticationFailure(request, response, exception);
+    }
+
+}
@@ -7,37 +7,51 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
 import org.springframework.stereotype.Component;
 
-import com.jihan.springboot.usermanagement.entity.User;
-import com.jihan.springboot.usermanagement.service.UserService;
+import com.jihan.springboot.usermanagement.service.RoleRegistry;
+import com.jihan.springboot.usermanagement.service.UserAccountCache;
 
 @Component
 public class CustomAuthenticationSuccessHandler implements AuthenticationSuccessHandler {
 
-    private UserService userService;
+    private static final Logger logger = LoggerFactory.getLogger(CustomAuthenticationSuccessHandler.class);
 
-    public CustomAuthenticationSuccessHandler(UserService theUserService) {
-        userService = theUserService;
+    private UserAccountCache userAccountCache;
+
+    private RoleRegistry roleRegistry;
+
+    private LoginMetrics loginMetrics;
+
+    public CustomAuthenticationSuccessHandler(UserAccountCache theUserAccountCache, RoleRegistry theRoleRegistry,
+                                              LoginMetrics theLoginMetrics) {
+        userAccountCache = theUserAccountCache;
+        roleRegistry = theRoleRegistry;
+        loginMetrics = theLoginMetrics;
     }
 
     @Override
     public void onAuthenticationSuccess(HttpServletRequest request, HttpServletResponse response, Authentication authentication)
             throws IOException, ServletException {
 
-        System.out.println("In customAuthenticationSuccessHandler");
+        loginMetrics.recordSuccess(LoginMetrics.Channel.FORM);
 
+        // the audit record comes from the AuthenticationSuccessEvent, see JdbcAuditEventRepository
         String userName = authentication.getName();
+        logger.debug("Form login succeeded for user: {}", userName);
 
-        System.out.println("userName=" + userName);
-
-        User theUser = userService.findByUserName(userName);
+        // served from the account cache that was just filled by the authentication
+        UserAccount theUser = userAccountCache.findByUserName(userName);
 
-        // now place in the session
+        // now place a compact snapshot in the session; the account itself
+        // carries the password hash and stays in the cache only
         HttpSession session = request.getSession();
-        session.setAttribute("user", theUser);
+        session.setAttribute(SessionUser.SESSION_ATTRIBUTE,
+                SessionUser.from(theUser, roleRegistry.effectiveMaskOf(theUser.getRoleNames())));
 
         // forward to home page
         response.sendRedirect(request.getContextPath() + "/");
@@ -0,0 +1,76 @@
+package com.jihan.springboot.usermanagement.security;
+
+import com.jihan.springboot.usermanagement.exception.HashingCapacityExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Login outcome counters, {@code security.login{channel, result}}
+ *
+ * Every channel/result pair is registered up front, so recording an outcome on
+ * the login path is an array lookup and an increment. The result is derived from
+ * the exception type, never from the username, to keep the series count fixed.
+ *
+ * @author Jihan
+ * @version 1.0.0
+ */
+@Component
+public class LoginMetrics {
+
+    /**
+     * Where the credentials were presented
+     */
+    public enum Channel {
+        FORM, API
+    }
+
+    private enum Result {
+        SUCCESS, BAD_CREDENTIALS, DISABLED, LOCKED, BUSY, ERROR
+    }
+
+    private final Counter[][] counters = new Counter[Channel.values().length][Result.values().length];
+
+    public LoginMetrics(MeterRegistry meterRegistry) {
+        for (Channel channel : Channel.values()) {
+            for (Result result : Result.values()) {
+                counters[channel.ordinal()][result.ordinal()] = Counter.builder("security.login")
+                        .description("Login attempts by channel and outcome")
+                        .tag("channel", channel.name().toLowerCase(Locale.ROOT))
+                        .tag("result", result.name().toLowerCase(Locale.ROOT))
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    public void recordSuccess(Channel channel) {
+        counters[channel.ordinal()][Result.SUCCESS.ordinal()].increment();
+    }
+
+    public void recordFailure(Channel channel, AuthenticationException exception) {
+        counters[channel.ordinal()][resultOf(exception).ordinal()].increment();
+    }
+
+    private static Result resultOf(AuthenticationException exception) {
+        if (exception instanceof BadCredentialsException || exception instanceof UsernameNotFoundException) {
+            return Result.BAD_CREDENTIALS;
+        }
+        if (exception instanceof DisabledException) {
+            return Result.DISABLED;
+        }
+        if (exception instanceof LockedException) {
+            return Result.LOCKED;
+        }
+        if (exception instanceof HashingCapacityExceededException) {
+            return Result.BUSY;
+        }
+        return Result.ERROR;
+    }
+}
@@ -0,0 +1,103 @@
+package com.jihan.springboot.usermanagement.security;
+
+import com.jihan.springboot.usermanagement.service.RoleRegistry;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+
+import java.util.function.Supplier;
+
+/**
+ * Role check against the user's effective role mask: one AND instead of
+ * expanding the role hierarchy and scanning the authorities per request
+ *
+ * The mask comes from the principal or the authentication details when they are
+ * a {@link RoleMaskHolder} (form logins, API tokens); otherwise it is computed
+ * from the authorities. The required bit is resolved lazily and cached until the
+ * role registry is refreshed.
+ *
+ * @author Jihan
+ * @version 1.0.0
+ */
+public final class RoleMaskAuthorizationManager<T> implements AuthorizationManager<T> {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final RoleRegistry roleRegistry;
+    private final String roleName;
+
+    private volatile RequiredMask requiredMask;
+
+    private RoleMaskAuthorizationManager(RoleRegistry roleRegistry, String roleName) {
+        this.roleRegistry = roleRegistry;
+        this.roleName = roleName;
+    }
+
+    /**
+     * @param roleRegistry registry holding the role masks
+     * @param role role without the {@code ROLE_} prefix, as in {@code hasRole}
+     * @return a manager granting access to users that have the role or a role implying it
+     */
+    public static <T> RoleMaskAuthorizationManager<T> hasRole(RoleRegistry roleRegistry, String role) {
+        if (role.startsWith(ROLE_PREFIX)) {
+            throw new IllegalArgumentException(role + " should not start with " + ROLE_PREFIX);
+        }
+        return new RoleMaskAuthorizationManager<>(roleRegistry, ROLE_PREFIX + role);
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, T object) {
+        Authentication current = authentication.get();
+        if (current == null || !current.isAuthenticated() || current instanceof AnonymousAuthenticationToken) {
+            return DENIED;
+        }
+        long required = requiredBit();
+        if (required == 0L) {
+            // role without a bit (unknown or id beyond the mask range): expand the authorities instead
+            boolean granted = roleRegistry.getReachableGrantedAuthorities(current.getAuthorities()).stream()
+                    .anyMatch(authority -> roleName.equals(authority.getAuthority()));
+            return granted ? GRANTED : DENIED;
+        }
+        return (roleMaskOf(current) & required) != 0L ? GRANTED : DENIED;
+    }
+
+    private long roleMaskOf(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof RoleMaskHolder holder) {
+            return holder.getRoleMask();
+        }
+        if (authentication.getDetails() instanceof RoleMaskHolder holder) {
+            return holder.getRoleMask();
+        }
+        return roleRegistry.effectiveMaskOfAuthorities(authentication.getAuthorities());
+    }
+
+    private long requiredBit() {
+        int generation = roleRegistry.getGeneration();
+        RequiredMask cached = requiredMask;
+        if (cached == null || cached.generation != generation) {
+            cached = new RequiredMask(generation, roleRegistry.maskOf(roleName));
+            requiredMask = cached;
+        }
+        return cached.mask;
+    }
+
+    @Override
+    public String toString() {
+        return "RoleMaskAuthorizationManager[role=" + roleName + "]";
+    }
+
+    private static final class RequiredMask {
+
+        private final int generation;
+        private final long mask;
+
+        private RequiredMask(int generation, long mask) {
+            this.generation = generation;
+            this.mask = mask;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.jihan.springboot.usermanagement.security;
+
+/**
+ * A principal or authentication detail that carries the user's effective role mask
+ *
+ * The mask is compiled once, when the user is loaded, by
+ * {@link com.jihan.springboot.usermanagement.service.RoleRegistry#effectiveMaskOf(java.util.Collection)}
+ * and already includes every role implied by the role hierarchy.
+ *
+ * @author Jihan
+ * @version 1.0.0
+ */
+public interface RoleMaskHolder {
+
+    /**
+     * @return the effective role mask, one bit per role
+     */
+    long getRoleMask();
+}
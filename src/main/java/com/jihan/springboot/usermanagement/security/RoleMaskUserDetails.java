@@ -0,0 +1,31 @@
+package com.jihan.springboot.usermanagement.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * {@link User} that also carries the effective role mask, so that URL rules can
+ * be checked without walking the authority list on every request
+ *
+ * @author Jihan
+ * @version 1.0.0
+ */
+public class RoleMaskUserDetails extends User implements RoleMaskHolder {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long roleMask;
+
+    public RoleMaskUserDetails(String username, String password, Collection<? extends GrantedAuthority> authorities,
+                               long roleMask) {
+        super(username, password, authorities);
+        this.roleMask = roleMask;
+    }
+
+    @Override
+    public long getRoleMask() {
+        return roleMask;
+    }
+}
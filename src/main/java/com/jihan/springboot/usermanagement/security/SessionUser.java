@@ -0,0 +1,82 @@
+package com.jihan.springboot.usermanagement.security;
+
+import java.io.Serializable;
+
+/**
+ * Immutable snapshot of the logged-in user kept in the HTTP session
+ *
+ * Holds only what pages need to greet and authorize the user: no password hash,
+ * no timestamps and no role collection, so each session stays small on the heap
+ * and cheap to serialize when sessions are persisted or replicated. Roles are a
+ * bitmask that includes the roles implied by the hierarchy, see
+ * {@link com.jihan.springboot.usermanagement.service.RoleRegistry#effectiveMaskOf(java.util.Collection)}.
+ *
+ * @author Jihan
+ * @version 1.0.0
+ */
+public final class SessionUser implements Serializable, RoleMaskHolder {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Session attribute the snapshot is stored under
+     */
+    public static final String SESSION_ATTRIBUTE = "user";
+
+    private final long id;
+    private final String userName;
+    private final String displayName;
+    private final long roleMask;
+
+    public SessionUser(long id, String userName, String displayName, long roleMask) {
+        this.id = id;
+        this.userName = userName;
+        this.displayName = displayName;
+        this.roleMask = roleMask;
+    }
+
+    /**
+     * Creates the session snapshot of an authenticated account
+     * @param account the account that just logged in
+     * @param roleMask the effective mask of the account's roles
+     * @return the session snapshot
+     */
+    public static SessionUser from(UserAccount account, long roleMask) {
+        String displayName = (account.getFirstName() + " " + account.getLastName()).trim();
+        return new SessionUser(account.getId(), account.getUserName(), displayName, roleMask);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    @Override
+    public long getRoleMask() {
+        return roleMask;
+    }
+
+    /**
+     * @param mask one or more role bits
+     * @return true if the user has at least one of the given roles
+     */
+    public boolean hasAnyRole(long mask) {
+        return (roleMask & mask) != 0L;
+    }
+
+    @Override
+    public String toString() {
+        return "SessionUser{" +
+                "id=" + id +
+                ", userName='" + userName + '\'' +
+                ", roleMask=" + Long.toBinaryString(roleMask) +
+                '}';
+    }
+}
@@ -0,0 +1,97 @@
+package com.jihan.springboot.usermanagement.security;
+
+import com.jihan.springboot.usermanagement.entity.Role;
+import com.jihan.springboot.usermanagement.entity.User;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Immutable authentication view of a user
+ *
+ * This is what the user account cache holds instead of the JPA entity: it has no
+ * persistence context, no lazy collections and can be shared safely between threads.
+ *
+ * @author Jihan
+ * @version 1.0.0
+ */
+public final class UserAccount implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+    private final String userName;
+    private final String password;
+    private final boolean enabled;
+    private final String firstName;
+    private final String lastName;
+    private final String email;
+    private final List<String> roleNames;
+
+    public UserAccount(Long id, String userName, String password, boolean enabled,
+                       String firstName, String lastName, String email, List<String> roleNames) {
+        this.id = id;
+        this.userName = userName;
+        this.password = password;
+        this.enabled = enabled;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.roleNames = List.copyOf(roleNames);
+    }
+
+    /**
+     * Creates a snapshot of the given user entity
+     * @param user the user entity with its roles loaded
+     * @return the immutable account snapshot
+     */
+    public static UserAccount from(User user) {
+        List<String> roleNames = user.getRoles() == null ? List.of()
+                : user.getRoles().stream().map(Role::getName).toList();
+
+        return new UserAccount(user.getId(), user.getUserName(), user.getPassword(), user.isEnabled(),
+                user.getFirstName(), user.getLastName(), user.getEmail(), roleNames);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public List<String> getRoleNames() {
+        return roleNames;
+    }
+
+    @Override
+    public String toString() {
+        return "UserAccount{" +
+                "id=" + id +
+                ", userName='" + userName + '\'' +
+                ", enabled=" + enabled +
+                ", roleNames=" + roleNames +
+                '}';
+    }
+}
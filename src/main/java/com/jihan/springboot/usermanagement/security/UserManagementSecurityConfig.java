@@ -1,19 +1,56 @@
 package com.jihan.springboot.usermanagement.security;
 
+import com.jihan.springboot.usermanagement.service.RoleRegistry;
 import com.jihan.springboot.usermanagement.service.UserService;
+import com.jihan.springboot.usermanagement.session.JdbcSessionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AuthenticationEventPublisher;
+import org.springframework.security.authentication.DefaultAuthenticationEventPublisher;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.authentication.event.AuthenticationFailureServiceExceptionEvent;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.session.SessionRegistry;
 import org.springframework.security.core.session.SessionRegistryImpl;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.header.writers.ReferrerPolicyHeaderWriter;
+import org.springframework.session.security.SpringSessionBackedSessionRegistry;
 
 import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Security Configuration for User Management System
@@ -28,21 +65,63 @@ import javax.sql.DataSource;
 @EnableWebSecurity
 public class UserManagementSecurityConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(UserManagementSecurityConfig.class);
+
     //bcrypt bean definition
     @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
+    public BCryptPasswordEncoder bcryptPasswordEncoder() {
         return new BCryptPasswordEncoder();
     }
 
+    /**
+     * Password encoder used by logins and registrations. BCrypt runs on a bounded,
+     * core-sized pool so that a burst of logins cannot occupy every request thread.
+     * With virtual threads the hashing threads are virtual too; they share the
+     * carrier threads with request handling, so by default they get only half the
+     * cores and CPU-bound hashing cannot stall every request.
+     */
+    @Bean
+    @Primary
+    public BoundedPasswordEncoder passwordEncoder(BCryptPasswordEncoder bcryptPasswordEncoder,
+                                                 MeterRegistry meterRegistry,
+                                                 @Value("${app.security.hashing.threads:0}") int threads,
+                                                 @Value("${app.security.hashing.queue-capacity:64}") int queueCapacity,
+                                                 @Value("${app.security.hashing.timeout:5s}") Duration timeout,
+                                                 @Value("${app.security.hashing.retry-after:2s}") Duration retryAfter,
+                                                 @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        // like Spring Boot, ignore the flag on a JVM without virtual threads
+        if (virtualThreads && JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE)) {
+            int poolSize = threads > 0 ? threads : Math.max(1, cores / 2);
+            return new BoundedPasswordEncoder(bcryptPasswordEncoder, poolSize, queueCapacity, timeout, retryAfter,
+                    meterRegistry, new VirtualThreadTaskExecutor("password-hashing-").getVirtualThreadFactory());
+        }
+        int poolSize = threads > 0 ? threads : cores;
+        return new BoundedPasswordEncoder(bcryptPasswordEncoder, poolSize, queueCapacity, timeout, retryAfter,
+                meterRegistry);
+    }
+
     //authenticationProvider bean definition
     @Bean
-    public DaoAuthenticationProvider authenticationProvider(UserService userService) {
+    public DaoAuthenticationProvider authenticationProvider(UserService userService, PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider auth = new DaoAuthenticationProvider();
         auth.setUserDetailsService(userService); //set the custom user details service
-        auth.setPasswordEncoder(passwordEncoder()); //set the password encoder - bcrypt
+        auth.setPasswordEncoder(passwordEncoder); //set the password encoder - bounded bcrypt
         return auth;
     }
 
+    /**
+     * Publishes login outcomes as application events, which feed the audit trail.
+     * Unmapped exceptions (such as a saturated hashing pool) are published as
+     * service failures instead of being skipped, so every failed login is recorded.
+     */
+    @Bean
+    public AuthenticationEventPublisher authenticationEventPublisher(ApplicationEventPublisher applicationEventPublisher) {
+        DefaultAuthenticationEventPublisher publisher = new DefaultAuthenticationEventPublisher(applicationEventPublisher);
+        publisher.setDefaultAuthenticationFailureEvent(AuthenticationFailureServiceExceptionEvent.class);
+        return publisher;
+    }
+
 //    @Bean
 //    public UserDetailsManager userDetailsManager(DataSource dataSource) {
 //
@@ -63,15 +142,125 @@ public class UserManagementSecurityConfig {
 //        return jdbcUserDetailsManager;
 //    }
 
+    /**
+     * Signs and verifies API tokens. Keys are configured as
+     * {@code app.security.api-token.keys=id1:base64key,id2:base64key}. Without keys
+     * the dev and test profiles generate a random one, which only suits a single
+     * node that may restart; any other profile refuses to start, since tokens would
+     * fail on the other nodes and after every restart.
+     */
+    @Bean
+    public ApiTokenService apiTokenService(RoleRegistry roleRegistry, MeterRegistry meterRegistry,
+                                           @Value("${app.security.api-token.keys:}") String configuredKeys,
+                                           @Value("${app.security.api-token.signing-key-id:}") String signingKeyId,
+                                           @Value("${app.security.api-token.ttl:15m}") Duration ttl,
+                                           Environment environment) {
+        Map<String, byte[]> keys = new LinkedHashMap<>();
+        for (String entry : configuredKeys.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int colon = entry.indexOf(':');
+            if (colon <= 0) {
+                throw new IllegalStateException("API token keys must be configured as id:base64key");
+            }
+            keys.put(entry.substring(0, colon).trim(), Base64.getDecoder().decode(entry.substring(colon + 1).trim()));
+        }
+
+        if (keys.isEmpty()) {
+            if (!environment.acceptsProfiles(Profiles.of("dev", "test"))) {
+                throw new IllegalStateException("No API token keys configured (app.security.api-token.keys); "
+                        + "a generated key is only allowed in the dev and test profiles");
+            }
+            logger.warn("No API token keys configured, using a random key; tokens are only valid on this node until restart");
+            keys.put("local", ApiTokenService.generateKey());
+        }
+        String activeKeyId = signingKeyId.isBlank() ? keys.keySet().iterator().next() : signingKeyId;
+        return new ApiTokenService(activeKeyId, keys, ttl, roleRegistry, meterRegistry, Clock.systemUTC());
+    }
+
+    /**
+     * Prometheus scrape endpoint: HTTP Basic with a dedicated account
+     * ({@code app.security.metrics.*}) that holds only ROLE_METRICS and is not a
+     * user of the application. Stateless, so scrapes create no sessions and, with
+     * their own authentication manager, no login audit events. Without a
+     * configured password every scrape is rejected.
+     */
+    @Bean
+    @Order(0)
+    public SecurityFilterChain metricsFilterChain(HttpSecurity http,
+                                                  @Value("${app.security.metrics.username:prometheus}") String username,
+                                                  @Value("${app.security.metrics.password:}") String password) throws Exception {
+        List<UserDetails> accounts = new ArrayList<>();
+        if (password.isBlank()) {
+            logger.warn("No app.security.metrics.password configured; /actuator/prometheus rejects every request");
+        } else {
+            // stored with an encoding prefix, e.g. {bcrypt}$2a$... ({noop} for local use)
+            accounts.add(User.withUsername(username).password(password).roles("METRICS").build());
+        }
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(new InMemoryUserDetailsManager(accounts));
+        provider.setPasswordEncoder(PasswordEncoderFactories.createDelegatingPasswordEncoder());
+
+        http.securityMatcher("/actuator/prometheus")
+                .authorizeHttpRequests(configurer -> configurer.anyRequest().hasRole("METRICS"))
+                .authenticationManager(new ProviderManager(provider))
+                .httpBasic(basic -> {})
+                .sessionManagement(session ->
+                        session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                )
+                .csrf(csrf -> csrf.disable());
+
+        return http.build();
+    }
+
+    /**
+     * Stateless chain for API clients: bearer tokens only, no session, no CSRF
+     * (no cookies are involved). Checked before the form-login chain.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain apiFilterChain(HttpSecurity http, ApiTokenService apiTokenService) throws Exception {
+
+        http.securityMatcher("/api/**")
+                .authorizeHttpRequests(configurer ->
+                        configurer
+                                .requestMatchers(HttpMethod.POST, "/api/auth/token").permitAll()
+                                .anyRequest().authenticated()
+                )
+                .addFilterBefore(new ApiTokenAuthenticationFilter(apiTokenService),
+                        UsernamePasswordAuthenticationFilter.class)
+                .sessionManagement(session ->
+                        session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                )
+                .exceptionHandling(configurer ->
+                        configurer
+                                // plain status codes; sendError would dispatch to /error through the form-login chain
+                                .authenticationEntryPoint((request, response, ex) -> {
+                                    response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+                                    response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                                })
+                                .accessDeniedHandler((request, response, ex) ->
+                                        response.setStatus(HttpServletResponse.SC_FORBIDDEN))
+                )
+                .csrf(csrf -> csrf.disable());
+
+        return http.build();
+    }
+
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http, AuthenticationSuccessHandler customAuthenticationSuccessHandler) throws Exception {
+    @Order(2)
+    public SecurityFilterChain filterChain(HttpSecurity http, AuthenticationSuccessHandler customAuthenticationSuccessHandler,
+                                           AuthenticationFailureHandler customAuthenticationFailureHandler,
+                                           SessionRegistry sessionRegistry, RoleRegistry roleRegistry) throws Exception {
 
+        // role rules are one mask test; the hierarchy (app.security.role-hierarchy) is already in the user's mask
         http.authorizeHttpRequests(configurer ->
                         configurer
-                                .requestMatchers("/", "/home").hasRole("EMPLOYEE")
-                                .requestMatchers("/leaders/**").hasRole("MANAGER")
-                                .requestMatchers("/systems/**").hasRole("ADMIN")
+                                .requestMatchers("/", "/home").access(RoleMaskAuthorizationManager.hasRole(roleRegistry, "EMPLOYEE"))
+                                .requestMatchers("/leaders/**").access(RoleMaskAuthorizationManager.hasRole(roleRegistry, "MANAGER"))
+                                .requestMatchers("/systems/**").access(RoleMaskAuthorizationManager.hasRole(roleRegistry, "ADMIN"))
                                 .requestMatchers("/register/**", "/css/**", "/js/**", "/images/**").permitAll()
+                                // /actuator/prometheus has its own chain (metricsFilterChain)
                                 .requestMatchers("/actuator/health", "/actuator/info").permitAll()
                                 .anyRequest().authenticated()
                 )
@@ -80,7 +269,7 @@ public class UserManagementSecurityConfig {
                                 .loginPage("/login")
                                 .loginProcessingUrl("/authenticateTheUser")
                                 .successHandler(customAuthenticationSuccessHandler)
-                                .failureUrl("/login?error=true")
+                                .failureHandler(customAuthenticationFailureHandler)
                                 .usernameParameter("username")
                                 .passwordParameter("password")
                                 .permitAll()
@@ -101,7 +290,7 @@ public class UserManagementSecurityConfig {
                         session
                                 .maximumSessions(1)
                                 .maxSessionsPreventsLogin(false)
-                                .sessionRegistry(sessionRegistry())
+                                .sessionRegistry(sessionRegistry)
                                 .and()
                                 .sessionFixation().migrateSession()
                                 .invalidSessionUrl("/login?expired=true")
@@ -126,10 +315,16 @@ public class UserManagementSecurityConfig {
     }
 
     /**
-     * Session registry bean for concurrent session control
+     * Session registry bean for concurrent session control. With the database
+     * session store the registry queries the shared store, so maximumSessions
+     * holds across all nodes; otherwise it tracks this node's sessions in memory.
      */
     @Bean
-    public SessionRegistry sessionRegistry() {
+    public SessionRegistry sessionRegistry(ObjectProvider<JdbcSessionRepository> jdbcSessionRepository) {
+        JdbcSessionRepository sessionRepository = jdbcSessionRepository.getIfAvailable();
+        if (sessionRepository != null) {
+            return new SpringSessionBackedSessionRegistry<>(sessionRepository);
+        }
         return new SessionRegistryImpl();
     }
 
@@ -0,0 +1,41 @@
+package com.jihan.springboot.usermanagement.service;
+
+import java.util.Locale;
+
+/**
+ * Output formats supported by the user export
+ * 
+ * @author Jihan
+ * @version 1.0.0
+ */
+public enum ExportFormat {
+
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Resolve a format from a request parameter, ignoring case
+     * @param value the requested format, e.g. "csv"
+     * @return the matching format
+     * @throws IllegalArgumentException if the format is not supported
+     */
+    public static ExportFormat from(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
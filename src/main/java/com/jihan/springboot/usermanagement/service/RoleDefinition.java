@@ -0,0 +1,58 @@
+package com.jihan.springboot.usermanagement.service;
+
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Immutable description of a role held by the {@link RoleRegistry}
+ *
+ * Carries the role id (used to attach the role with a reference instead of a
+ * query), the single canonical authority instance for the role and the role's
+ * bit in session role masks.
+ *
+ * @author Jihan
+ * @version 1.0.0
+ */
+public final class RoleDefinition {
+
+    /**
+     * Role ids above this cannot be represented in a long role mask
+     */
+    public static final long MAX_MASK_ROLE_ID = Long.SIZE;
+
+    private final Long id;
+    private final String name;
+    private final SimpleGrantedAuthority authority;
+    private final long mask;
+
+    public RoleDefinition(Long id, String name) {
+        this.id = id;
+        this.name = name;
+        this.authority = new SimpleGrantedAuthority(name);
+        // bit (id - 1): derived from the database id so it is the same on every node
+        this.mask = id != null && id >= 1 && id <= MAX_MASK_ROLE_ID ? 1L << (id - 1) : 0L;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public SimpleGrantedAuthority getAuthority() {
+        return authority;
+    }
+
+    /**
+     * @return the single bit of this role in a role mask, or 0 if the id is out of range
+     */
+    public long getMask() {
+        return mask;
+    }
+
+    @Override
+    public String toString() {
+        return "RoleDefinition{" + "id=" + id + ", name='" + name + '\'' + '}';
+    }
+}
@@ -0,0 +1,326 @@
+package com.jihan.springboot.usermanagement.service;
+
+import com.jihan.springboot.usermanagement.dao.RoleDao;
+import com.jihan.springboot.usermanagement.entity.Role;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory registry of all roles, loaded once at startup
+ *
+ * Roles almost never change, so lookups by name or id are served from an immutable
+ * snapshot instead of a query. Managed entities belong to a single persistence
+ * context, so the registry keeps role ids and callers attach roles with
+ * {@link RoleDao#getReference(Long)} inside their own transaction.
+ *
+ * The snapshot is only rebuilt by an explicit {@link #refresh()}.
+ *
+ * The registry also compiles the declared role hierarchy
+ * ({@code app.security.role-hierarchy}, e.g. {@code ROLE_ADMIN > ROLE_MANAGER > ROLE_EMPLOYEE})
+ * into one bitmask per role: the role's own bit plus the bits of every role it
+ * implies. A user's effective mask is the OR of those, so an authorization rule
+ * is a single AND, and an admin needs only the ROLE_ADMIN row. As the application's
+ * {@link RoleHierarchy} it gives {@code hasRole} expressions in templates the same view.
+ *
+ * @author Jihan
+ * @version 1.0.0
+ */
+@Component
+public class RoleRegistry implements SmartInitializingSingleton, RoleHierarchy {
+
+	private static final Logger logger = LoggerFactory.getLogger(RoleRegistry.class);
+
+	private final RoleDao roleDao;
+
+	/** role name to the roles it directly implies */
+	private final Map<String, Set<String>> hierarchy;
+
+	private volatile Snapshot snapshot;
+
+	@Autowired
+	public RoleRegistry(RoleDao roleDao, @Value("${app.security.role-hierarchy:}") String hierarchy) {
+		this.roleDao = roleDao;
+		this.hierarchy = parseHierarchy(hierarchy);
+	}
+
+	@Override
+	public void afterSingletonsInstantiated() {
+		refresh();
+	}
+
+	/**
+	 * Reload all roles from the database and atomically replace the snapshot
+	 */
+	public void refresh() {
+		List<Role> roles = roleDao.findAll();
+
+		Map<String, RoleDefinition> byName = new HashMap<>();
+		Map<Long, RoleDefinition> byId = new HashMap<>();
+		for (Role role : roles) {
+			RoleDefinition definition = new RoleDefinition(role.getId(), role.getName());
+			if (definition.getMask() == 0L) {
+				logger.warn("Role {} has id {} and cannot be represented in role masks", role.getName(), role.getId());
+			}
+			byName.put(definition.getName(), definition);
+			byId.put(definition.getId(), definition);
+		}
+
+		Map<String, Long> effectiveMasks = new HashMap<>();
+		RoleDefinition[] byBit = new RoleDefinition[Long.SIZE];
+		for (RoleDefinition definition : byName.values()) {
+			effectiveMasks.put(definition.getName(), effectiveMask(definition.getName(), byName));
+			if (definition.getMask() != 0L) {
+				byBit[Long.numberOfTrailingZeros(definition.getMask())] = definition;
+			}
+		}
+
+		Snapshot previous = snapshot;
+		snapshot = new Snapshot(Map.copyOf(byName), Map.copyOf(byId), Map.copyOf(effectiveMasks), byBit,
+				previous == null ? 1 : previous.generation + 1);
+		logger.info("Role registry loaded {} roles", roles.size());
+	}
+
+	public Optional<RoleDefinition> findByName(String roleName) {
+		return Optional.ofNullable(currentSnapshot().byName.get(roleName));
+	}
+
+	public Optional<RoleDefinition> findById(Long roleId) {
+		return Optional.ofNullable(currentSnapshot().byId.get(roleId));
+	}
+
+	/**
+	 * Find a role that must exist, such as the default registration role
+	 * @param roleName the role name
+	 * @return the role definition
+	 * @throws IllegalStateException if the role is not in the database
+	 */
+	public RoleDefinition getRequired(String roleName) {
+		return findByName(roleName)
+				.orElseThrow(() -> new IllegalStateException("Role not found: " + roleName));
+	}
+
+	public Collection<RoleDefinition> getAll() {
+		return currentSnapshot().byName.values();
+	}
+
+	/**
+	 * Canonical authority instance for the given role name
+	 * @param roleName the role name
+	 * @return the shared authority, or a new one for a role unknown to the registry
+	 */
+	public SimpleGrantedAuthority authorityFor(String roleName) {
+		RoleDefinition definition = currentSnapshot().byName.get(roleName);
+		return definition != null ? definition.getAuthority() : new SimpleGrantedAuthority(roleName);
+	}
+
+	/**
+	 * Effective mask of the given roles, including every role they imply
+	 * @param roleNames role names, such as an account's roles
+	 * @return the OR of the roles' hierarchy masks; unknown roles contribute nothing
+	 */
+	public long effectiveMaskOf(Collection<String> roleNames) {
+		Map<String, Long> effectiveMasks = currentSnapshot().effectiveMasks;
+		long mask = 0L;
+		for (String roleName : roleNames) {
+			Long roleMask = effectiveMasks.get(roleName);
+			if (roleMask != null) {
+				mask |= roleMask;
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Effective mask of the given authorities, see {@link #effectiveMaskOf(Collection)}
+	 */
+	public long effectiveMaskOfAuthorities(Collection<? extends GrantedAuthority> authorities) {
+		Map<String, Long> effectiveMasks = currentSnapshot().effectiveMasks;
+		long mask = 0L;
+		for (GrantedAuthority authority : authorities) {
+			Long roleMask = effectiveMasks.get(authority.getAuthority());
+			if (roleMask != null) {
+				mask |= roleMask;
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Shared, immutable authority list for the given roles. Lists are cached per
+	 * role combination, so loading a user allocates no authorities.
+	 * @param roleNames the roles assigned to a user
+	 * @return the canonical authorities of exactly these roles
+	 */
+	public List<GrantedAuthority> authoritiesFor(Collection<String> roleNames) {
+		Snapshot current = currentSnapshot();
+		long mask = 0L;
+		for (String roleName : roleNames) {
+			RoleDefinition definition = current.byName.get(roleName);
+			if (definition == null || definition.getMask() == 0L) {
+				// not representable as a mask, build the list the slow way
+				List<GrantedAuthority> authorities = new ArrayList<>(roleNames.size());
+				roleNames.forEach(name -> authorities.add(authorityFor(name)));
+				return List.copyOf(authorities);
+			}
+			mask |= definition.getMask();
+		}
+		return current.authoritiesOf(mask);
+	}
+
+	/**
+	 * Expands the given authorities by the role hierarchy; authorities that are
+	 * not roles are kept as they are
+	 */
+	@Override
+	public Collection<? extends GrantedAuthority> getReachableGrantedAuthorities(
+			Collection<? extends GrantedAuthority> authorities) {
+		if (authorities == null || authorities.isEmpty()) {
+			return List.of();
+		}
+		Snapshot current = currentSnapshot();
+		List<GrantedAuthority> reachable = null;
+		for (GrantedAuthority authority : authorities) {
+			if (!current.effectiveMasks.containsKey(authority.getAuthority())) {
+				if (reachable == null) {
+					reachable = new ArrayList<>(current.authoritiesOf(effectiveMaskOfAuthorities(authorities)));
+				}
+				reachable.add(authority);
+			}
+		}
+		return reachable != null ? reachable : current.authoritiesOf(effectiveMaskOfAuthorities(authorities));
+	}
+
+	/**
+	 * Incremented by every {@link #refresh()}, so callers can cache derived masks
+	 */
+	public int getGeneration() {
+		return currentSnapshot().generation;
+	}
+
+	/**
+	 * Mask of a single role
+	 * @param roleName the role name
+	 * @return the role bit, or 0 if the role is unknown
+	 */
+	public long maskOf(String roleName) {
+		RoleDefinition definition = currentSnapshot().byName.get(roleName);
+		return definition != null ? definition.getMask() : 0L;
+	}
+
+	private Snapshot currentSnapshot() {
+		Snapshot current = snapshot;
+		if (current == null) {
+			// lookups before startup completed (e.g. lazily initialized contexts)
+			refresh();
+			current = snapshot;
+		}
+		return current;
+	}
+
+	private long effectiveMask(String roleName, Map<String, RoleDefinition> byName) {
+		long mask = 0L;
+		Set<String> visited = new HashSet<>();
+		List<String> pending = new ArrayList<>(List.of(roleName));
+		while (!pending.isEmpty()) {
+			String current = pending.remove(pending.size() - 1);
+			if (!visited.add(current)) {
+				continue;
+			}
+			RoleDefinition definition = byName.get(current);
+			if (definition != null) {
+				mask |= definition.getMask();
+			} else {
+				logger.warn("Role hierarchy refers to unknown role {}", current);
+			}
+			pending.addAll(hierarchy.getOrDefault(current, Set.of()));
+		}
+		return mask;
+	}
+
+	/**
+	 * Parses "ROLE_A > ROLE_B > ROLE_C", several chains separated by commas or new lines
+	 */
+	static Map<String, Set<String>> parseHierarchy(String declaration) {
+		Map<String, Set<String>> implied = new LinkedHashMap<>();
+		for (String chain : declaration.split("[,\\n]")) {
+			String[] roles = chain.split(">");
+			for (int i = 0; i + 1 < roles.length; i++) {
+				String higher = roles[i].trim();
+				String lower = roles[i + 1].trim();
+				if (higher.isEmpty() || lower.isEmpty()) {
+					throw new IllegalStateException("Invalid role hierarchy: " + chain);
+				}
+				implied.computeIfAbsent(higher, name -> new LinkedHashSet<>()).add(lower);
+			}
+		}
+		rejectCycles(implied);
+		return implied;
+	}
+
+	private static void rejectCycles(Map<String, Set<String>> implied) {
+		for (String role : implied.keySet()) {
+			List<String> pending = new ArrayList<>(implied.get(role));
+			Set<String> visited = new HashSet<>();
+			while (!pending.isEmpty()) {
+				String current = pending.remove(pending.size() - 1);
+				if (current.equals(role)) {
+					throw new IllegalStateException("Role hierarchy has a cycle through " + role);
+				}
+				if (visited.add(current)) {
+					pending.addAll(implied.getOrDefault(current, Set.of()));
+				}
+			}
+		}
+	}
+
+	private static final class Snapshot {
+
+		private final Map<String, RoleDefinition> byName;
+		private final Map<Long, RoleDefinition> byId;
+		private final Map<String, Long> effectiveMasks;
+		private final RoleDefinition[] byBit;
+		private final int generation;
+		private final Map<Long, List<GrantedAuthority>> authoritiesByMask = new ConcurrentHashMap<>();
+
+		private Snapshot(Map<String, RoleDefinition> byName, Map<Long, RoleDefinition> byId,
+				Map<String, Long> effectiveMasks, RoleDefinition[] byBit, int generation) {
+			this.byName = byName;
+			this.byId = byId;
+			this.effectiveMasks = effectiveMasks;
+			this.byBit = byBit;
+			this.generation = generation;
+		}
+
+		private List<GrantedAuthority> authoritiesOf(long mask) {
+			return authoritiesByMask.computeIfAbsent(mask, bits -> {
+				List<GrantedAuthority> authorities = new ArrayList<>(Long.bitCount(bits));
+				for (long remaining = bits; remaining != 0L; remaining &= remaining - 1) {
+					RoleDefinition definition = byBit[Long.numberOfTrailingZeros(remaining)];
+					if (definition != null) {
+						authorities.add(definition.getAuthority());
+					}
+				}
+				return List.copyOf(authorities);
+			});
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package com.jihan.springboot.usermanagement.service;
+
+import com.jihan.springboot.usermanagement.dao.UserDao;
+import com.jihan.springboot.usermanagement.entity.User;
+import com.jihan.springboot.usermanagement.event.UserChangedEvent;
+import com.jihan.springboot.usermanagement.event.UsersChangedEvent;
+import com.jihan.springboot.usermanagement.security.UserAccount;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Bounded cache of user accounts in front of {@link UserDao#findByUserName(String)}
+ *
+ * Entries are evicted by size and TTL (see {@code spring.cache.caffeine.spec}) and
+ * invalidated as soon as a change to the user is committed.
+ *
+ * @author Jihan
+ * @version 1.0.0
+ */
+@Component
+public class UserAccountCache {
+
+	public static final String CACHE_NAME = "userAccounts";
+
+	private static final Logger logger = LoggerFactory.getLogger(UserAccountCache.class);
+
+	private final UserDao userDao;
+	private final CacheManager cacheManager;
+
+	@Autowired
+	public UserAccountCache(UserDao userDao, CacheManager cacheManager) {
+		this.userDao = userDao;
+		this.cacheManager = cacheManager;
+	}
+
+	/**
+	 * Find an account by username, ignoring case, loading it from the database on a cache miss
+	 * @param userName the username to search for
+	 * @return the account or null if not found
+	 */
+	@Cacheable(cacheNames = CACHE_NAME, key = "T(com.jihan.springboot.usermanagement.entity.User).normalize(#userName)",
+			unless = "#result == null")
+	public UserAccount findByUserName(String userName) {
+		return userDao.findByUserName(userName).map(UserAccount::from).orElse(null);
+	}
+
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void onUserChanged(UserChangedEvent event) {
+		Cache cache = cacheManager.getCache(CACHE_NAME);
+		if (cache != null) {
+			logger.debug("Evicting cached account for user: {}", event.getUserName());
+			cache.evict(User.normalize(event.getUserName()));
+		}
+	}
+
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void onUsersChanged(UsersChangedEvent event) {
+		Cache cache = cacheManager.getCache(CACHE_NAME);
+		if (cache != null) {
+			logger.debug("Evicting cached accounts for {} users", event.getUserNames().size());
+			event.getUserNames().forEach(userName -> cache.evict(User.normalize(userName)));
+		}
+	}
+}
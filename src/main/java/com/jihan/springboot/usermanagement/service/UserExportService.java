@@ -0,0 +1,90 @@
+package com.jihan.springboot.usermanagement.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the user directory out of the database in constant memory
+ * 
+ * Rows are read from a forward-only JDBC cursor with a bounded fetch size and
+ * written straight to the output stream; neither entities nor DTOs are built.
+ * PostgreSQL only honours the fetch size inside a transaction, so the export
+ * runs in a read-only one and holds a single connection until it completes.
+ * 
+ * @author Jihan
+ * @version 1.0.0
+ */
+@Service
+public class UserExportService {
+
+	private static final Logger logger = LoggerFactory.getLogger(UserExportService.class);
+
+	// ordered by user ID so that all roles of a user arrive on adjacent rows
+	private static final String EXPORT_SQL =
+		"select u.id, u.username, u.first_name, u.last_name, u.email, u.enabled, r.name "
+		+ "from users u "
+		+ "left join users_roles ur on ur.user_id = u.id "
+		+ "left join roles r on r.id = ur.role_id "
+		+ "order by u.id, r.name";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+
+	@Autowired
+	public UserExportService(DataSource dataSource, PlatformTransactionManager transactionManager,
+			@Value("${app.users.export.fetch-size:1000}") int fetchSize) {
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.jdbcTemplate.setFetchSize(fetchSize);
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setReadOnly(true);
+	}
+
+	/**
+	 * Write all users to the given stream
+	 * @param format output format
+	 * @param gzip whether to gzip the output
+	 * @param out target stream; flushed but not closed
+	 * @return number of users written
+	 */
+	public long export(ExportFormat format, boolean gzip, OutputStream out) throws IOException {
+		long start = System.nanoTime();
+		GZIPOutputStream gzipOut = gzip ? new GZIPOutputStream(out, 64 * 1024) : null;
+		UserExportWriter writer = new UserExportWriter(format, gzipOut != null ? gzipOut : out);
+
+		try {
+			transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(EXPORT_SQL, rs -> {
+				try {
+					writer.accept(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+						rs.getString(5), rs.getBoolean(6), rs.getString(7));
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}));
+		} catch (UncheckedIOException e) {
+			// most often the client went away mid-download
+			throw e.getCause();
+		}
+
+		writer.close();
+		if (gzipOut != null) {
+			gzipOut.finish();
+		}
+		out.flush();
+
+		logger.info("Exported {} users as {} in {} ms", writer.getUsersWritten(), format,
+			(System.nanoTime() - start) / 1_000_000);
+		return writer.getUsersWritten();
+	}
+}
@@ -0,0 +1,168 @@
+package com.jihan.springboot.usermanagement.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes user export rows to an output stream as CSV or NDJSON
+ * 
+ * Input is one row per user and role, ordered by user ID. Consecutive rows of the
+ * same user are folded into one output record with all role names, so only the
+ * current user is ever held in memory.
+ * 
+ * @author Jihan
+ * @version 1.0.0
+ */
+public class UserExportWriter implements Closeable {
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	private static final String CSV_HEADER = "id,username,first_name,last_name,email,enabled,roles";
+
+	private final ExportFormat format;
+	private final Writer csv;
+	private final JsonGenerator json;
+
+	private long currentId;
+	private String userName;
+	private String firstName;
+	private String lastName;
+	private String email;
+	private boolean enabled;
+	private final List<String> roles = new ArrayList<>();
+	private boolean pending;
+	private long usersWritten;
+
+	public UserExportWriter(ExportFormat format, OutputStream out) throws IOException {
+		this.format = format;
+		if (format == ExportFormat.CSV) {
+			this.csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+			this.json = null;
+			csv.write(CSV_HEADER);
+			csv.write("\r\n");
+		} else {
+			this.csv = null;
+			this.json = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+			json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			json.setRootValueSeparator(null);
+		}
+	}
+
+	/**
+	 * Add one user-role row
+	 * @param roleName a role of the user, or null if the user has no roles
+	 */
+	public void accept(long id, String userName, String firstName, String lastName, String email,
+			boolean enabled, String roleName) throws IOException {
+		if (!pending || id != currentId) {
+			flushUser();
+			this.currentId = id;
+			this.userName = userName;
+			this.firstName = firstName;
+			this.lastName = lastName;
+			this.email = email;
+			this.enabled = enabled;
+			this.pending = true;
+		}
+		if (roleName != null) {
+			roles.add(roleName);
+		}
+	}
+
+	/**
+	 * Number of user records written so far
+	 */
+	public long getUsersWritten() {
+		return usersWritten;
+	}
+
+	/**
+	 * Write the last user and flush; the underlying stream is left open
+	 */
+	@Override
+	public void close() throws IOException {
+		flushUser();
+		if (format == ExportFormat.CSV) {
+			csv.flush();
+		} else {
+			json.close();
+		}
+	}
+
+	private void flushUser() throws IOException {
+		if (!pending) {
+			return;
+		}
+		if (format == ExportFormat.CSV) {
+			writeCsv();
+		} else {
+			writeJson();
+		}
+		roles.clear();
+		pending = false;
+		usersWritten++;
+	}
+
+	private void writeCsv() throws IOException {
+		csv.write(Long.toString(currentId));
+		csv.write(',');
+		writeCsvField(userName);
+		csv.write(',');
+		writeCsvField(firstName);
+		csv.write(',');
+		writeCsvField(lastName);
+		csv.write(',');
+		writeCsvField(email);
+		csv.write(',');
+		csv.write(Boolean.toString(enabled));
+		csv.write(',');
+		writeCsvField(String.join(";", roles));
+		csv.write("\r\n");
+	}
+
+	private void writeCsvField(String value) throws IOException {
+		if (value == null) {
+			return;
+		}
+		boolean quote = false;
+		for (int i = 0; i < value.length() && !quote; i++) {
+			char c = value.charAt(i);
+			quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+		}
+		if (!quote) {
+			csv.write(value);
+			return;
+		}
+		csv.write('"');
+		csv.write(value.replace("\"", "\"\""));
+		csv.write('"');
+	}
+
+	private void writeJson() throws IOException {
+		json.writeStartObject();
+		json.writeNumberField("id", currentId);
+		json.writeStringField("username", userName);
+		json.writeStringField("firstName", firstName);
+		json.writeStringField("lastName", lastName);
+		json.writeStringField("email", email);
+		json.writeBooleanField("enabled", enabled);
+		json.writeArrayFieldStart("roles");
+		for (String role : roles) {
+			json.writeString(role);
+		}
+		json.writeEndArray();
+		json.writeEndObject();
+		json.writeRaw('\n');
+	}
+}
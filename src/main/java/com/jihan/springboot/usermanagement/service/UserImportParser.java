@@ -0,0 +1,142 @@
+package com.jihan.springboot.usermanagement.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.jihan.springboot.usermanagement.dto.UserRegistrationDto;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Parses bulk import uploads into registration rows
+ * 
+ * CSV files need a header row naming the columns (username, password,
+ * first_name, last_name, email, in any order). JSON files may hold an array of
+ * user objects or one object per line, so an NDJSON export can be re-imported
+ * once passwords are added.
+ * 
+ * @author Jihan
+ * @version 1.0.0
+ */
+public final class UserImportParser {
+
+	private static final ObjectReader JSON_READER = JsonMapper.builder()
+		.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+		.build()
+		.readerFor(UserRegistrationDto.class);
+
+	private UserImportParser() {
+	}
+
+	/**
+	 * Parse an upload, choosing the format from the file name
+	 * @param fileName original file name; ".csv" selects CSV, anything else JSON
+	 * @param in file content
+	 * @return rows in file order
+	 * @throws IllegalArgumentException if the file is malformed
+	 */
+	public static List<UserRegistrationDto> parse(String fileName, InputStream in) throws IOException {
+		if (fileName != null && fileName.toLowerCase(Locale.ROOT).endsWith(".csv")) {
+			return parseCsv(in);
+		}
+		return parseJson(in);
+	}
+
+	static List<UserRegistrationDto> parseJson(InputStream in) throws IOException {
+		List<UserRegistrationDto> rows = new ArrayList<>();
+		try (MappingIterator<UserRegistrationDto> iterator = JSON_READER.readValues(in)) {
+			while (iterator.hasNextValue()) {
+				rows.add(iterator.nextValue());
+			}
+		} catch (JsonProcessingException e) {
+			throw new IllegalArgumentException("Malformed JSON at row " + (rows.size() + 1) + ": "
+				+ e.getOriginalMessage(), e);
+		}
+		return rows;
+	}
+
+	static List<UserRegistrationDto> parseCsv(InputStream in) throws IOException {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+		String headerLine = reader.readLine();
+		if (headerLine == null) {
+			return List.of();
+		}
+
+		Map<String, Integer> columns = new HashMap<>();
+		List<String> header = splitCsvLine(stripBom(headerLine));
+		for (int i = 0; i < header.size(); i++) {
+			columns.put(header.get(i).trim().toLowerCase(Locale.ROOT).replace("_", ""), i);
+		}
+		for (String required : List.of("username", "password", "firstname", "lastname", "email")) {
+			if (!columns.containsKey(required)) {
+				throw new IllegalArgumentException("CSV header is missing column: " + required);
+			}
+		}
+
+		List<UserRegistrationDto> rows = new ArrayList<>();
+		String line;
+		while ((line = reader.readLine()) != null) {
+			if (line.isBlank()) {
+				continue;
+			}
+			List<String> fields = splitCsvLine(line);
+			rows.add(new UserRegistrationDto(
+				field(fields, columns.get("username")),
+				field(fields, columns.get("password")),
+				field(fields, columns.get("firstname")),
+				field(fields, columns.get("lastname")),
+				field(fields, columns.get("email"))));
+		}
+		return rows;
+	}
+
+	private static String field(List<String> fields, int index) {
+		return index < fields.size() ? fields.get(index).trim() : null;
+	}
+
+	private static String stripBom(String line) {
+		return line.startsWith("\uFEFF") ? line.substring(1) : line;
+	}
+
+	/**
+	 * Split one CSV line, honouring double-quoted fields with "" escapes
+	 */
+	private static List<String> splitCsvLine(String line) {
+		List<String> fields = new ArrayList<>();
+		StringBuilder current = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					current.append('"');
+					i++;
+				} else if (c == '"') {
+					quoted = false;
+				} else {
+					current.append(c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				fields.add(current.toString());
+				current.setLength(0);
+			} else {
+				current.append(c);
+			}
+		}
+		fields.add(current.toString());
+		return fields;
+	}
+}
@@ -0,0 +1,269 @@
+package com.jihan.springboot.usermanagement.service;
+
+import com.jihan.springboot.usermanagement.dao.RoleDao;
+import com.jihan.springboot.usermanagement.dao.UserDao;
+import com.jihan.springboot.usermanagement.dto.ImportReport;
+import com.jihan.springboot.usermanagement.dto.UserRegistrationDto;
+import com.jihan.springboot.usermanagement.entity.User;
+import com.jihan.springboot.usermanagement.event.UsersImportedEvent;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk user import
+ * 
+ * Rows are validated and de-duplicated up front, then processed in chunks. The
+ * passwords of the next chunk are hashed in parallel on a dedicated pool while
+ * the current chunk is inserted in its own transaction as JDBC batches. A chunk
+ * that hits a unique constraint (a concurrent registration) is retried row by
+ * row so that only the offending rows are reported.
+ * 
+ * Hashing uses the raw BCrypt encoder rather than the bounded login encoder, so
+ * an import is never rejected by it and does not queue ahead of logins. Both
+ * pools still compete for the same cores; by default the import pool takes half
+ * of them, leaving the rest to the login pool and request handling.
+ * 
+ * @author Jihan
+ * @version 1.0.0
+ */
+@Service
+public class UserImportService implements DisposableBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+	private final UserDao userDao;
+	private final RoleDao roleDao;
+	private final RoleRegistry roleRegistry;
+	private final BCryptPasswordEncoder passwordEncoder;
+	private final TransactionTemplate transactionTemplate;
+	private final Validator validator;
+	private final ApplicationEventPublisher eventPublisher;
+	private final ExecutorService hashingExecutor;
+	private final int chunkSize;
+
+	@Autowired
+	public UserImportService(UserDao userDao, RoleDao roleDao, RoleRegistry roleRegistry,
+			BCryptPasswordEncoder passwordEncoder, PlatformTransactionManager transactionManager,
+			Validator validator, ApplicationEventPublisher eventPublisher,
+			@Value("${app.users.import.hashing-threads:0}") int hashingThreads,
+			@Value("${app.users.import.chunk-size:500}") int chunkSize) {
+		this.userDao = userDao;
+		this.roleDao = roleDao;
+		this.roleRegistry = roleRegistry;
+		this.passwordEncoder = passwordEncoder;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.validator = validator;
+		this.eventPublisher = eventPublisher;
+		this.chunkSize = Math.max(1, chunkSize);
+
+		int threads = hashingThreads > 0 ? hashingThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("user-import-hashing-");
+		threadFactory.setDaemon(true);
+		this.hashingExecutor = Executors.newFixedThreadPool(threads, threadFactory);
+	}
+
+	/**
+	 * Import users with the default role
+	 * @param rows parsed rows in file order
+	 * @return counts, per-row errors and throughput
+	 */
+	public ImportReport importUsers(List<UserRegistrationDto> rows) {
+		long start = System.nanoTime();
+		List<ImportReport.RowError> errors = new ArrayList<>();
+		List<Row> valid = validate(rows, errors);
+		Long defaultRoleId = roleRegistry.getRequired(UserServiceImpl.DEFAULT_ROLE).getId();
+
+		int imported = 0;
+		List<Row> current = withoutExisting(valid.subList(0, Math.min(chunkSize, valid.size())), errors);
+		List<CompletableFuture<String>> currentHashes = hash(current);
+		for (int from = 0; from < valid.size(); from += chunkSize) {
+			// start hashing the next chunk before inserting this one
+			int nextFrom = from + chunkSize;
+			List<Row> next = List.of();
+			List<CompletableFuture<String>> nextHashes = List.of();
+			if (nextFrom < valid.size()) {
+				next = withoutExisting(valid.subList(nextFrom, Math.min(nextFrom + chunkSize, valid.size())), errors);
+				nextHashes = hash(next);
+			}
+
+			imported += insert(current, join(currentHashes), defaultRoleId, errors);
+
+			current = next;
+			currentHashes = nextHashes;
+		}
+
+		errors.sort(Comparator.comparingInt(ImportReport.RowError::getRow));
+		ImportReport report = new ImportReport(rows.size(), imported, errors,
+			(System.nanoTime() - start) / 1_000_000);
+		logger.info("Imported {} of {} users in {} ms ({} rows/s)", report.getImported(), report.getTotalRows(),
+			report.getDurationMillis(), Math.round(report.getRowsPerSecond()));
+		return report;
+	}
+
+	/**
+	 * Bean-validate every row and drop usernames or emails repeated within the file, ignoring case
+	 */
+	private List<Row> validate(List<UserRegistrationDto> rows, List<ImportReport.RowError> errors) {
+		List<Row> valid = new ArrayList<>(rows.size());
+		Set<String> userNames = new HashSet<>();
+		Set<String> emails = new HashSet<>();
+		for (int i = 0; i < rows.size(); i++) {
+			UserRegistrationDto dto = rows.get(i);
+			int rowNumber = i + 1;
+
+			Set<ConstraintViolation<UserRegistrationDto>> violations = validator.validate(dto);
+			if (!violations.isEmpty()) {
+				String message = violations.stream()
+						.map(ConstraintViolation::getMessage)
+						.sorted()
+						.collect(Collectors.joining("; "));
+				errors.add(new ImportReport.RowError(rowNumber, dto.getUsername(), message));
+			} else if (!userNames.add(User.normalize(dto.getUsername()))) {
+				errors.add(new ImportReport.RowError(rowNumber, dto.getUsername(), "Duplicate username in file"));
+			} else if (!emails.add(User.normalize(dto.getEmail()))) {
+				errors.add(new ImportReport.RowError(rowNumber, dto.getUsername(), "Duplicate email in file"));
+			} else {
+				valid.add(new Row(rowNumber, dto));
+			}
+		}
+		return valid;
+	}
+
+	/**
+	 * Drop rows whose username or email is already registered, before any hashing is spent on them
+	 */
+	private List<Row> withoutExisting(List<Row> chunk, List<ImportReport.RowError> errors) {
+		Set<String> takenNames = userDao.findExistingUserNames(
+			chunk.stream().map(row -> row.dto().getUsername()).collect(Collectors.toList()));
+		Set<String> takenEmails = userDao.findExistingEmails(
+			chunk.stream().map(row -> row.dto().getEmail()).collect(Collectors.toList()));
+
+		List<Row> remaining = new ArrayList<>(chunk.size());
+		for (Row row : chunk) {
+			if (takenNames.contains(User.normalize(row.dto().getUsername()))) {
+				errors.add(new ImportReport.RowError(row.number(), row.dto().getUsername(), "Username already exists"));
+			} else if (takenEmails.contains(User.normalize(row.dto().getEmail()))) {
+				errors.add(new ImportReport.RowError(row.number(), row.dto().getUsername(), "Email already exists"));
+			} else {
+				remaining.add(row);
+			}
+		}
+		return remaining;
+	}
+
+	private List<CompletableFuture<String>> hash(List<Row> chunk) {
+		return chunk.stream()
+				.map(row -> CompletableFuture.supplyAsync(
+						() -> passwordEncoder.encode(row.dto().getPassword()), hashingExecutor))
+				.collect(Collectors.toList());
+	}
+
+	private static List<String> join(List<CompletableFuture<String>> hashes) {
+		return hashes.stream().map(CompletableFuture::join).collect(Collectors.toList());
+	}
+
+	/**
+	 * Insert one chunk in a single transaction, falling back to one transaction per
+	 * row if a unique constraint is hit
+	 * @return number of users inserted
+	 */
+	private int insert(List<Row> chunk, List<String> hashes, Long roleId, List<ImportReport.RowError> errors) {
+		if (chunk.isEmpty()) {
+			return 0;
+		}
+		try {
+			persist(chunk, hashes, roleId);
+			return chunk.size();
+		} catch (DataIntegrityViolationException e) {
+			logger.debug("Chunk starting at row {} hit a unique constraint, retrying row by row", chunk.get(0).number());
+		}
+
+		int inserted = 0;
+		for (int i = 0; i < chunk.size(); i++) {
+			Row row = chunk.get(i);
+			try {
+				persist(List.of(row), List.of(hashes.get(i)), roleId);
+				inserted++;
+			} catch (DataIntegrityViolationException e) {
+				errors.add(new ImportReport.RowError(row.number(), row.dto().getUsername(),
+					"Username or email already exists"));
+			}
+		}
+		return inserted;
+	}
+
+	private void persist(List<Row> rows, List<String> hashes, Long roleId) {
+		List<User> imported = transactionTemplate.execute(status -> {
+			// references are only valid inside the transaction that created them
+			List<User> users = new ArrayList<>(rows.size());
+			for (int i = 0; i < rows.size(); i++) {
+				UserRegistrationDto dto = rows.get(i).dto();
+				User user = new User();
+				user.setUserName(dto.getUsername());
+				user.setPassword(hashes.get(i));
+				user.setFirstName(dto.getFirstName());
+				user.setLastName(dto.getLastName());
+				user.setEmail(dto.getEmail());
+				user.setEnabled(true);
+				user.setRoles(new ArrayList<>(List.of(roleDao.getReference(roleId))));
+				users.add(user);
+			}
+			userDao.persistAll(users);
+			return users;
+		});
+
+		// committed by now, so the audit trail never records a batch that was rolled back
+		eventPublisher.publishEvent(new UsersImportedEvent(
+			imported.stream().map(User::getId).toList(),
+			imported.stream().map(User::getUserName).toList()));
+	}
+
+	@Override
+	public void destroy() {
+		hashingExecutor.shutdown();
+	}
+
+	/**
+	 * A validated row and its 1-based position in the file
+	 */
+	private static final class Row {
+
+		private final int number;
+		private final UserRegistrationDto dto;
+
+		Row(int number, UserRegistrationDto dto) {
+			this.number = number;
+			this.dto = dto;
+		}
+
+		int number() {
+			return number;
+		}
+
+		UserRegistrationDto dto() {
+			return dto;
+		}
+	}
+}
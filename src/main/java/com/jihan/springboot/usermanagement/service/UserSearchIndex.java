@@ -0,0 +1,737 @@
+package com.jihan.springboot.usermanagement.service;
+
+import com.jihan.springboot.usermanagement.dao.UserQueryDao;
+import com.jihan.springboot.usermanagement.dto.UserDto;
+import com.jihan.springboot.usermanagement.dto.UserPage;
+import com.jihan.springboot.usermanagement.event.UserChangedEvent;
+import com.jihan.springboot.usermanagement.event.UsersChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * In-memory type-ahead index over username, full name and email
+ *
+ * Every field is broken into trigrams, plus the one- and two-character prefixes
+ * of each word for very short queries. Each gram maps to a posting list of
+ * document numbers held in a plain {@code int[]}, sorted because documents are
+ * only ever appended. A query intersects the posting lists of its grams, rarest
+ * first, and confirms each candidate with a substring check. It stops as soon
+ * as a page is full, so its cost depends on the page size rather than on how
+ * many users match.
+ *
+ * The index is loaded at startup and updated once a user change has been
+ * committed. The users changed by one transaction are queued together when it
+ * commits and re-read by a background thread, so the committing request never
+ * waits for the index; commits that land while a reload runs are folded into
+ * the next one. A changed user is appended as a new document and the old document
+ * is tombstoned. Tombstones are compacted away once they make up a quarter of
+ * the index.
+ *
+ * Search cursors hold the index generation, the document count when paging
+ * started and the last position returned. Within a generation documents keep
+ * their numbers, and each new document remembers the one it replaced, so a user
+ * changed while someone pages is returned at the position it had when paging
+ * started: never twice, and never skipped for having moved to the end.
+ * Compaction and rebuilds renumber the documents and start a new generation;
+ * cursors from an older one are rejected, and the caller searches again from
+ * the first page.
+ *
+ * @author Jihan
+ * @version 1.0.0
+ */
+@Component
+public class UserSearchIndex implements DisposableBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(UserSearchIndex.class);
+
+	private static final int GRAM = 3;
+	private static final int MAX_PAGE_SIZE = 100;
+	// users re-read per query after a change; keeps the IN lists short
+	private static final int RELOAD_BATCH = 500;
+
+	private final UserQueryDao userQueryDao;
+	private final TransactionTemplate scanTemplate;
+	private final TransactionTemplate reloadTemplate;
+	private final int fetchSize;
+	private final boolean asyncStartupRebuild;
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Set<Long> changedDuringBuild = ConcurrentHashMap.newKeySet();
+	private final Set<Long> pendingReloads = ConcurrentHashMap.newKeySet();
+	private final AtomicBoolean reloadScheduled = new AtomicBoolean();
+	private final ExecutorService reloader;
+	private final AtomicLong generations = new AtomicLong();
+	private Index index = new Index(16, 0);
+	private boolean building;
+
+	@Autowired
+	public UserSearchIndex(UserQueryDao userQueryDao, PlatformTransactionManager transactionManager,
+			MeterRegistry meterRegistry, @Value("${app.users.search.fetch-size:1000}") int fetchSize,
+			@Value("${app.users.search.async-startup-rebuild:false}") boolean asyncStartupRebuild) {
+		this.userQueryDao = userQueryDao;
+		this.fetchSize = fetchSize;
+		this.asyncStartupRebuild = asyncStartupRebuild;
+
+		// reads go to the primary: a lagging replica could index a stale row
+		this.scanTemplate = new TransactionTemplate(transactionManager);
+		this.reloadTemplate = new TransactionTemplate(transactionManager);
+		this.reloadTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+		CustomizableThreadFactory reloadThreads = new CustomizableThreadFactory("user-search-reload-");
+		reloadThreads.setDaemon(true);
+		this.reloader = Executors.newSingleThreadExecutor(reloadThreads);
+
+		gauge(meterRegistry, "user.search.index.documents", "Live users in the search index", "users",
+			i -> i.docCount - i.deletedCount);
+		gauge(meterRegistry, "user.search.index.tombstones", "Replaced documents awaiting compaction", "users",
+			i -> i.deletedCount);
+		gauge(meterRegistry, "user.search.index.terms", "Distinct grams in the search index", "terms",
+			i -> i.postings.size());
+		gauge(meterRegistry, "user.search.index.memory", "Estimated heap used by the search index", "bytes",
+			Index::estimateBytes);
+	}
+
+	private void gauge(MeterRegistry meterRegistry, String name, String description, String unit,
+			ToDoubleFunction<Index> value) {
+		Gauge.builder(name, this, searchIndex -> searchIndex.read(value))
+			.description(description)
+			.baseUnit(unit)
+			.register(meterRegistry);
+	}
+
+	private double read(ToDoubleFunction<Index> value) {
+		lock.readLock().lock();
+		try {
+			return value.applyAsDouble(index);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		if (asyncStartupRebuild) {
+			// readiness is reported after this listener returns; don't hold it back for a full scan
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("user-search-index-");
+			threadFactory.setDaemon(true);
+			threadFactory.newThread(this::rebuild).start();
+			return;
+		}
+		rebuild();
+	}
+
+	/**
+	 * Reload the whole index from the database and swap it in. Changes committed
+	 * while the scan runs are re-applied afterwards.
+	 */
+	public void rebuild() {
+		long start = System.nanoTime();
+		lock.writeLock().lock();
+		try {
+			building = true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+
+		Index fresh = new Index(1024, generations.incrementAndGet());
+		try {
+			scanTemplate.executeWithoutResult(status -> userQueryDao.scanAll(fetchSize, fresh::add));
+		} catch (RuntimeException e) {
+			lock.writeLock().lock();
+			try {
+				building = false;
+			} finally {
+				lock.writeLock().unlock();
+			}
+			throw e;
+		}
+
+		List<Long> changed;
+		lock.writeLock().lock();
+		try {
+			index = fresh;
+			building = false;
+			changed = new ArrayList<>(changedDuringBuild);
+			changedDuringBuild.clear();
+		} finally {
+			lock.writeLock().unlock();
+		}
+		scheduleReload(changed);
+
+		logger.info("User search index built with {} users and {} grams in {} ms (~{} KB)",
+			fresh.docCount, fresh.postings.size(), (System.nanoTime() - start) / 1_000_000,
+			(long) read(Index::estimateBytes) / 1024);
+	}
+
+	@EventListener
+	public void onUserChanged(UserChangedEvent event) {
+		reloadAfterCommit(List.of(event.getUserId()));
+	}
+
+	@EventListener
+	public void onUsersChanged(UsersChangedEvent event) {
+		reloadAfterCommit(event.getUserIds());
+	}
+
+	/**
+	 * Collect the users changed in the current transaction and queue them once,
+	 * after it commits; without a transaction, queue them right away
+	 */
+	private void reloadAfterCommit(Collection<Long> userIds) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			scheduleReload(userIds);
+			return;
+		}
+		@SuppressWarnings("unchecked")
+		Set<Long> changed = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+		if (changed == null) {
+			Set<Long> changedInTransaction = new LinkedHashSet<>();
+			TransactionSynchronizationManager.bindResource(this, changedInTransaction);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(UserSearchIndex.this);
+					if (status == STATUS_COMMITTED) {
+						scheduleReload(changedInTransaction);
+					}
+				}
+			});
+			changed = changedInTransaction;
+		}
+		changed.addAll(userIds);
+	}
+
+	/**
+	 * Queue users for the reload thread. Users queued while it is busy are picked
+	 * up by its next pass, so concurrent changes share their round trips.
+	 */
+	private void scheduleReload(Collection<Long> userIds) {
+		if (userIds.isEmpty()) {
+			return;
+		}
+		pendingReloads.addAll(userIds);
+		if (reloadScheduled.compareAndSet(false, true)) {
+			reloader.execute(this::reloadPending);
+		}
+	}
+
+	/**
+	 * Apply everything queued so far, RELOAD_BATCH users per query
+	 */
+	private void reloadPending() {
+		// cleared first: users queued from here on need another pass
+		reloadScheduled.set(false);
+		// taken out before reading, so a user changed again meanwhile stays queued
+		List<Long> batch = new ArrayList<>();
+		for (Iterator<Long> pending = pendingReloads.iterator(); pending.hasNext(); ) {
+			batch.add(pending.next());
+			pending.remove();
+		}
+		for (int from = 0; from < batch.size(); from += RELOAD_BATCH) {
+			List<Long> ids = batch.subList(from, Math.min(from + RELOAD_BATCH, batch.size()));
+			try {
+				apply(ids, reloadTemplate.execute(status -> userQueryDao.findByIds(ids)));
+			} catch (RuntimeException e) {
+				// stay queued for the next pass rather than leave the index stale for good
+				logger.warn("Could not reload {} users into the search index: {}", ids.size(), e.toString());
+				pendingReloads.addAll(batch.subList(from, batch.size()));
+				return;
+			}
+		}
+	}
+
+	private void apply(List<Long> userIds, List<UserDto> users) {
+		lock.writeLock().lock();
+		try {
+			if (building) {
+				changedDuringBuild.addAll(userIds);
+			}
+			// users that no longer exist are dropped
+			userIds.forEach(index::remove);
+			users.forEach(index::add);
+			if (index.needsCompaction()) {
+				index = index.compact(generations.incrementAndGet());
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Find users whose username, full name or email contains the query, ignoring
+	 * case. One- and two-character queries match the start of any word instead.
+	 * @param query the text typed so far
+	 * @param cursor cursor returned with the previous page, or null for the first page
+	 * @param pageSize maximum number of users to return, capped at 100
+	 * @return matching users and the cursor for the next page
+	 * @throws IllegalArgumentException if the cursor is malformed, or the index was
+	 *         compacted or rebuilt since it was issued; search again without a cursor
+	 */
+	public UserPage search(String query, String cursor, int pageSize) {
+		String needle = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+		int limit = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+		Cursor after = Cursor.parse(cursor);
+		if (needle.isEmpty()) {
+			return new UserPage(List.of(), null);
+		}
+
+		lock.readLock().lock();
+		try {
+			if (after == null) {
+				after = new Cursor(index.generation, index.docCount, -1);
+			} else if (after.generation() != index.generation) {
+				throw new IllegalArgumentException("The search index has changed since this page; search again");
+			}
+			int[] docs = index.search(needle, after.afterDoc(), after.horizon(), limit + 1);
+			int found = Math.min(docs.length, limit);
+			List<UserDto> content = new ArrayList<>(found);
+			for (int i = 0; i < found; i++) {
+				content.add(index.toDto(index.documentAt(docs[i])));
+			}
+			String nextCursor = docs.length > limit
+				? new Cursor(after.generation(), after.horizon(), docs[limit - 1]).toString()
+				: null;
+			return new UserPage(content, nextCursor);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Position in one generation of the index: the document count when paging
+	 * started and the last document returned
+	 */
+	private record Cursor(long generation, int horizon, int afterDoc) {
+
+		static Cursor parse(String cursor) {
+			if (cursor == null || cursor.isBlank()) {
+				return null;
+			}
+			String[] parts = cursor.split("\\.");
+			try {
+				if (parts.length == 3) {
+					return new Cursor(Long.parseLong(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+				}
+			} catch (NumberFormatException e) {
+				// reported below
+			}
+			throw new IllegalArgumentException("Invalid search cursor");
+		}
+
+		@Override
+		public String toString() {
+			return generation + "." + horizon + "." + afterDoc;
+		}
+	}
+
+	@Override
+	public void destroy() {
+		reloader.shutdownNow();
+	}
+
+	/**
+	 * Documents and posting lists; all access is guarded by the outer lock
+	 */
+	private static final class Index {
+
+		private final long generation;
+		private int docCount;
+		private int deletedCount;
+		private long[] userIds;
+		// the document each one replaced, or -1 for a user's first document
+		private int[] previous;
+		private String[] userNames;
+		private String[] firstNames;
+		private String[] lastNames;
+		private String[] emails;
+		private String[][] roles;
+		private final BitSet enabled = new BitSet();
+		private final BitSet deleted = new BitSet();
+
+		private final LongIntMap docByUserId;
+		private final Map<Long, IntList> postings = new HashMap<>();
+		private final Map<Set<String>, String[]> roleSets = new HashMap<>();
+
+		Index(int capacity, long generation) {
+			this.generation = generation;
+			userIds = new long[capacity];
+			previous = new int[capacity];
+			userNames = new String[capacity];
+			firstNames = new String[capacity];
+			lastNames = new String[capacity];
+			emails = new String[capacity];
+			roles = new String[capacity][];
+			docByUserId = new LongIntMap(capacity);
+		}
+
+		void add(UserDto user) {
+			int replaced = docByUserId.get(user.getId());
+			remove(user.getId());
+			if (docCount == userIds.length) {
+				grow();
+			}
+
+			int doc = docCount++;
+			userIds[doc] = user.getId();
+			previous[doc] = replaced;
+			userNames[doc] = user.getUsername();
+			firstNames[doc] = user.getFirstName();
+			lastNames[doc] = user.getLastName();
+			emails[doc] = user.getEmail();
+			roles[doc] = internRoles(user.getRoles());
+			enabled.set(doc, user.isEnabled());
+			docByUserId.put(user.getId(), doc);
+
+			indexField(doc, user.getUsername());
+			indexField(doc, fullName(doc));
+			indexField(doc, user.getEmail());
+		}
+
+		void remove(Long userId) {
+			// the mapping stays, so the user's next document can point back at this one
+			int doc = docByUserId.get(userId);
+			if (doc >= 0 && !deleted.get(doc)) {
+				deleted.set(doc);
+				deletedCount++;
+			}
+		}
+
+		boolean needsCompaction() {
+			return deletedCount > 1024 && deletedCount * 4 > docCount;
+		}
+
+		Index compact(long nextGeneration) {
+			Index compacted = new Index(Math.max(16, docCount - deletedCount), nextGeneration);
+			for (int doc = 0; doc < docCount; doc++) {
+				if (!deleted.get(doc)) {
+					compacted.add(toDto(doc));
+				}
+			}
+			logger.debug("Compacted user search index from {} to {} documents", docCount, compacted.docCount);
+			return compacted;
+		}
+
+		/**
+		 * Positions of the next matches after afterDoc. A position is the document
+		 * number, except for users changed since paging started: they keep the
+		 * position of the document they had then, see {@link #liveAt}.
+		 */
+		int[] search(String needle, int afterDoc, int horizon, int limit) {
+			List<IntList> lists = new ArrayList<>();
+			if (needle.length() < GRAM) {
+				IntList list = postings.get(gramKey(needle, 0, needle.length()));
+				if (list == null) {
+					return new int[0];
+				}
+				lists.add(list);
+			} else {
+				for (int i = 0; i + GRAM <= needle.length(); i++) {
+					IntList list = postings.get(gramKey(needle, i, GRAM));
+					if (list == null) {
+						return new int[0];
+					}
+					if (!lists.contains(list)) {
+						lists.add(list);
+					}
+				}
+				// rarest gram first: it bounds the number of candidates
+				lists.sort((a, b) -> Integer.compare(a.size, b.size));
+			}
+
+			IntList rarest = lists.get(0);
+			int[] matches = new int[limit];
+			int found = 0;
+			for (int i = rarest.indexAfter(afterDoc); i < rarest.size && found < limit; i++) {
+				int doc = rarest.data[i];
+				if (!inAll(lists, doc)) {
+					continue;
+				}
+				int live = liveAt(doc, horizon, lists);
+				if (live >= 0 && (live == doc || inEvery(lists, live)) && contains(live, needle)) {
+					matches[found++] = doc;
+				}
+			}
+			return Arrays.copyOf(matches, found);
+		}
+
+		/**
+		 * The live document to return at a position, or -1. Documents added after
+		 * paging started (at or past the horizon) may replace one from before; such
+		 * a user is returned at the old position, so it is neither repeated nor
+		 * skipped, unless the old document never matched the query.
+		 */
+		private int liveAt(int doc, int horizon, List<IntList> lists) {
+			if (doc >= horizon) {
+				if (deleted.get(doc)) {
+					return -1;
+				}
+				int origin = origin(doc, horizon);
+				return origin >= 0 && inEvery(lists, origin) ? -1 : doc;
+			}
+			if (!deleted.get(doc)) {
+				return doc;
+			}
+			int live = docByUserId.get(userIds[doc]);
+			return live >= horizon && !deleted.get(live) && origin(live, horizon) == doc ? live : -1;
+		}
+
+		/**
+		 * The user's document when paging started, or -1 for a user added since
+		 */
+		private int origin(int doc, int horizon) {
+			int version = doc;
+			while (version >= horizon) {
+				version = previous[version];
+			}
+			return version;
+		}
+
+		/**
+		 * Resolve a position returned by search to the document to show
+		 */
+		int documentAt(int position) {
+			return deleted.get(position) ? docByUserId.get(userIds[position]) : position;
+		}
+
+		private static boolean inEvery(List<IntList> lists, int doc) {
+			return lists.get(0).contains(doc) && inAll(lists, doc);
+		}
+
+		private static boolean inAll(List<IntList> lists, int doc) {
+			// the first list is the one being scanned
+			for (int i = 1; i < lists.size(); i++) {
+				if (!lists.get(i).contains(doc)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private boolean contains(int doc, String needle) {
+			return lower(userNames[doc]).contains(needle)
+				|| lower(fullName(doc)).contains(needle)
+				|| lower(emails[doc]).contains(needle);
+		}
+
+		UserDto toDto(int doc) {
+			return new UserDto(userIds[doc], userNames[doc], firstNames[doc], lastNames[doc], emails[doc],
+				enabled.get(doc), new LinkedHashSet<>(Arrays.asList(roles[doc])));
+		}
+
+		private String fullName(int doc) {
+			return firstNames[doc] + " " + lastNames[doc];
+		}
+
+		private void indexField(int doc, String value) {
+			if (value == null) {
+				return;
+			}
+			String text = lower(value);
+			for (int i = 0; i + GRAM <= text.length(); i++) {
+				posting(gramKey(text, i, GRAM)).addOnce(doc);
+			}
+
+			// one- and two-character prefixes of every word, for short queries
+			int wordStart = -1;
+			for (int i = 0; i <= text.length(); i++) {
+				boolean letterOrDigit = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+				if (letterOrDigit && wordStart < 0) {
+					wordStart = i;
+				} else if (!letterOrDigit && wordStart >= 0) {
+					for (int length = 1; length < GRAM && wordStart + length <= i; length++) {
+						posting(gramKey(text, wordStart, length)).addOnce(doc);
+					}
+					wordStart = -1;
+				}
+			}
+		}
+
+		private IntList posting(long key) {
+			return postings.computeIfAbsent(key, k -> new IntList());
+		}
+
+		private String[] internRoles(Set<String> roleNames) {
+			Set<String> sorted = new TreeSet<>(roleNames);
+			return roleSets.computeIfAbsent(sorted, k -> k.toArray(new String[0]));
+		}
+
+		private void grow() {
+			int capacity = userIds.length * 2;
+			userIds = Arrays.copyOf(userIds, capacity);
+			previous = Arrays.copyOf(previous, capacity);
+			userNames = Arrays.copyOf(userNames, capacity);
+			firstNames = Arrays.copyOf(firstNames, capacity);
+			lastNames = Arrays.copyOf(lastNames, capacity);
+			emails = Arrays.copyOf(emails, capacity);
+			roles = Arrays.copyOf(roles, capacity);
+		}
+
+		/**
+		 * Rough heap estimate: array payloads plus typical JVM object headers
+		 */
+		double estimateBytes() {
+			long bytes = 0;
+			for (IntList list : postings.values()) {
+				// map entry + boxed key + list object + array
+				bytes += 32 + 16 + 24 + 16 + 4L * list.data.length;
+			}
+			bytes += 16L + 8L * userIds.length + 16L + 4L * previous.length;
+			bytes += 5 * (16L + 4L * userNames.length);
+			for (int doc = 0; doc < docCount; doc++) {
+				bytes += stringBytes(userNames[doc]) + stringBytes(firstNames[doc])
+					+ stringBytes(lastNames[doc]) + stringBytes(emails[doc]);
+			}
+			bytes += docByUserId.estimateBytes();
+			bytes += (enabled.size() + deleted.size()) / 8;
+			return bytes;
+		}
+
+		private static long stringBytes(String value) {
+			return value == null ? 0 : 40 + value.length();
+		}
+
+		private static String lower(String value) {
+			return value == null ? "" : value.toLowerCase(Locale.ROOT);
+		}
+
+		/**
+		 * Pack up to three chars and the gram length into one key, so trigrams
+		 * and short prefixes never collide
+		 */
+		private static long gramKey(String text, int from, int length) {
+			long key = (long) length << 48;
+			for (int i = 0; i < length; i++) {
+				key |= (long) text.charAt(from + i) << (32 - 16 * i);
+			}
+			return key;
+		}
+	}
+
+	/**
+	 * Growable, ascending list of document numbers
+	 */
+	private static final class IntList {
+
+		private int[] data = new int[4];
+		private int size;
+
+		void addOnce(int doc) {
+			// documents are indexed in increasing order, so a repeat can only be the last entry
+			if (size > 0 && data[size - 1] == doc) {
+				return;
+			}
+			if (size == data.length) {
+				data = Arrays.copyOf(data, size + (size >> 1) + 1);
+			}
+			data[size++] = doc;
+		}
+
+		boolean contains(int doc) {
+			return Arrays.binarySearch(data, 0, size, doc) >= 0;
+		}
+
+		int indexAfter(int doc) {
+			int i = Arrays.binarySearch(data, 0, size, doc);
+			return i >= 0 ? i + 1 : -i - 1;
+		}
+	}
+
+	/**
+	 * Open-addressing map from user ID to document number, without boxing.
+	 * User IDs are positive, so 0 marks a free slot.
+	 */
+	private static final class LongIntMap {
+
+		private long[] keys;
+		private int[] values;
+		private int size;
+
+		LongIntMap(int expected) {
+			int capacity = Integer.highestOneBit(Math.max(16, expected * 2) - 1) << 1;
+			keys = new long[capacity];
+			values = new int[capacity];
+		}
+
+		int get(long key) {
+			int mask = keys.length - 1;
+			for (int slot = hash(key) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+				if (keys[slot] == key) {
+					return values[slot];
+				}
+			}
+			return -1;
+		}
+
+		void put(long key, int value) {
+			if ((size + 1) * 2 > keys.length) {
+				resize();
+			}
+			int mask = keys.length - 1;
+			int slot = hash(key) & mask;
+			while (keys[slot] != 0 && keys[slot] != key) {
+				slot = (slot + 1) & mask;
+			}
+			if (keys[slot] == 0) {
+				keys[slot] = key;
+				size++;
+			}
+			values[slot] = value;
+		}
+
+		private void resize() {
+			long[] oldKeys = keys;
+			int[] oldValues = values;
+			keys = new long[oldKeys.length * 2];
+			values = new int[oldValues.length * 2];
+			size = 0;
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldKeys[i] != 0) {
+					put(oldKeys[i], oldValues[i]);
+				}
+			}
+		}
+
+		long estimateBytes() {
+			return 32 + 8L * keys.length + 4L * values.length;
+		}
+
+		private static int hash(long key) {
+			long h = key * 0x9E3779B97F4A7C15L;
+			return (int) (h ^ (h >>> 32));
+		}
+	}
+}
@@ -1,12 +1,14 @@
 package com.jihan.springboot.usermanagement.service;
 
 import com.jihan.springboot.usermanagement.dto.UserDto;
+import com.jihan.springboot.usermanagement.dto.UserPage;
 import com.jihan.springboot.usermanagement.dto.UserRegistrationDto;
 import com.jihan.springboot.usermanagement.entity.User;
 import com.jihan.springboot.usermanagement.user.WebUser;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Service interface for User management operations
@@ -47,6 +49,23 @@ public interface UserService extends UserDetailsService {
      */
     List<UserDto> findAllUsers();
 
+    /**
+     * Get one page of users ordered by username, using keyset pagination
+     * @param afterUsername cursor returned with the previous page, or null for the first page
+     * @param pageSize requested page size; non-positive values use the default, larger
+     *                 values are capped at the configured maximum
+     * @return the page of user DTOs and the cursor for the next page
+     */
+    UserPage findUsersPage(String afterUsername, int pageSize);
+
+    /**
+     * Stream all users over a database cursor with a bounded fetch size, for jobs
+     * that must visit every row. Must be called inside a transaction, and the
+     * returned stream must be closed.
+     * @return stream of user DTOs ordered by username
+     */
+    Stream<UserDto> streamAllUsers();
+
     /**
      * Find user by ID
      * @param id the user ID
@@ -2,29 +2,41 @@ package com.jihan.springboot.usermanagement.service;
 
 import com.jihan.springboot.usermanagement.dao.RoleDao;
 import com.jihan.springboot.usermanagement.dao.UserDao;
+import com.jihan.springboot.usermanagement.dao.UserQueryDao;
 import com.jihan.springboot.usermanagement.dto.UserDto;
+import com.jihan.springboot.usermanagement.dto.UserPage;
 import com.jihan.springboot.usermanagement.dto.UserRegistrationDto;
 import com.jihan.springboot.usermanagement.entity.Role;
 import com.jihan.springboot.usermanagement.entity.User;
+import com.jihan.springboot.usermanagement.event.UserRegisteredEvent;
 import com.jihan.springboot.usermanagement.exception.UserAlreadyExistsException;
 import com.jihan.springboot.usermanagement.exception.UserNotFoundException;
+import com.jihan.springboot.usermanagement.security.RoleMaskUserDetails;
+import com.jihan.springboot.usermanagement.security.UserAccount;
 import com.jihan.springboot.usermanagement.user.WebUser;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementation of UserService interface
@@ -41,142 +53,239 @@ public class UserServiceImpl implements UserService {
 
 	private static final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
 
+	static final String DEFAULT_ROLE = "ROLE_EMPLOYEE";
+
 	private final UserDao userDao;
+	private final UserQueryDao userQueryDao;
 	private final RoleDao roleDao;
-	private final BCryptPasswordEncoder passwordEncoder;
+	private final PasswordEncoder passwordEncoder;
+	private final TransactionTemplate transactionTemplate;
+	private final UserAccountCache userAccountCache;
+	private final RoleRegistry roleRegistry;
+	private final ApplicationEventPublisher eventPublisher;
+
+	@Value("${app.users.page.default-size:50}")
+	private int defaultPageSize;
+
+	@Value("${app.users.page.max-size:500}")
+	private int maxPageSize;
+
+	@Value("${app.users.stream.fetch-size:500}")
+	private int streamFetchSize;
 
 	@Autowired
-	public UserServiceImpl(UserDao userDao, RoleDao roleDao, BCryptPasswordEncoder passwordEncoder) {
+	public UserServiceImpl(UserDao userDao, UserQueryDao userQueryDao, RoleDao roleDao,
+			PasswordEncoder passwordEncoder, PlatformTransactionManager transactionManager,
+			UserAccountCache userAccountCache, RoleRegistry roleRegistry, ApplicationEventPublisher eventPublisher) {
 		this.userDao = userDao;
+		this.userQueryDao = userQueryDao;
 		this.roleDao = roleDao;
 		this.passwordEncoder = passwordEncoder;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.userAccountCache = userAccountCache;
+		this.roleRegistry = roleRegistry;
+		this.eventPublisher = eventPublisher;
 	}
 
 	@Override
 	public User findByUserName(String userName) {
 		// check the database if the user already exists
-		return userDao.findByUserName(userName);
+		return userDao.findByUserName(userName).orElse(null);
 	}
 
 	@Override
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
 	public void save(WebUser webUser) {
 		logger.info("Saving user with username: {}", webUser.getUserName());
-		
-		// Check if user already exists
-		if (existsByUsername(webUser.getUserName())) {
-			throw new UserAlreadyExistsException("User already exists with username: " + webUser.getUserName());
-		}
-		
-		if (existsByEmail(webUser.getEmail())) {
-			throw new UserAlreadyExistsException("User already exists with email: " + webUser.getEmail());
-		}
-		
-		User user = new User();
-
-		// assign user details to the user object
-		user.setUserName(webUser.getUserName());
-		user.setPassword(passwordEncoder.encode(webUser.getPassword()));
-		user.setFirstName(webUser.getFirstName());
-		user.setLastName(webUser.getLastName());
-		user.setEmail(webUser.getEmail());
-		user.setEnabled(true);
 
-		// give user default role of "employee"
-		user.setRoles(Arrays.asList(roleDao.findRoleByName("ROLE_EMPLOYEE")));
-
-		// save user in the database
-		userDao.save(user);
+		User user = register(webUser.getUserName(), webUser.getPassword(), webUser.getFirstName(),
+				webUser.getLastName(), webUser.getEmail());
 		logger.info("Successfully saved user: {}", user.getUserName());
 	}
 
 	@Override
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
 	public UserDto save(UserRegistrationDto userRegistrationDto) {
 		logger.info("Saving user from DTO with username: {}", userRegistrationDto.getUsername());
-		
-		// Check if user already exists
-		if (existsByUsername(userRegistrationDto.getUsername())) {
-			throw new UserAlreadyExistsException("User already exists with username: " + userRegistrationDto.getUsername());
-		}
-		
-		if (existsByEmail(userRegistrationDto.getEmail())) {
-			throw new UserAlreadyExistsException("User already exists with email: " + userRegistrationDto.getEmail());
+
+		User savedUser = register(userRegistrationDto.getUsername(), userRegistrationDto.getPassword(),
+				userRegistrationDto.getFirstName(), userRegistrationDto.getLastName(), userRegistrationDto.getEmail());
+		logger.info("Successfully saved user from DTO: {}", savedUser.getUserName());
+
+		// the role was attached by reference, so its name comes from the registry
+		return new UserDto(savedUser.getId(), savedUser.getUserName(), savedUser.getFirstName(),
+				savedUser.getLastName(), savedUser.getEmail(), savedUser.isEnabled(), Set.of(DEFAULT_ROLE));
+	}
+
+	/**
+	 * Registration pipeline shared by both save methods.
+	 *
+	 * Taken usernames and emails are rejected by two index-only existence checks
+	 * before the password is hashed, so a duplicate never costs a bcrypt round.
+	 * Password hashing runs without a transaction, so no pooled connection is
+	 * held during the bcrypt work. Two registrations racing for the same name
+	 * both pass the checks; the unique constraints on username and email reject
+	 * the second insert.
+	 */
+	private User register(String userName, String rawPassword, String firstName, String lastName, String email) {
+		// a short transaction of its own, so its connection is returned before hashing
+		String taken = transactionTemplate.execute(status -> {
+			if (userDao.existsByUserName(userName)) {
+				return User.USERNAME_CONSTRAINT;
+			}
+			return userDao.existsByEmail(email) ? User.EMAIL_CONSTRAINT : null;
+		});
+		if (taken != null) {
+			throw duplicate(taken, userName, email, null);
 		}
-		
+
 		User user = new User();
-		user.setUserName(userRegistrationDto.getUsername());
-		user.setPassword(passwordEncoder.encode(userRegistrationDto.getPassword()));
-		user.setFirstName(userRegistrationDto.getFirstName());
-		user.setLastName(userRegistrationDto.getLastName());
-		user.setEmail(userRegistrationDto.getEmail());
+		user.setUserName(userName);
+		user.setPassword(passwordEncoder.encode(rawPassword));
+		user.setFirstName(firstName);
+		user.setLastName(lastName);
+		user.setEmail(email);
 		user.setEnabled(true);
 
-		// give user default role of "employee"
-		user.setRoles(Arrays.asList(roleDao.findRoleByName("ROLE_EMPLOYEE")));
+		// resolved from the registry, no query needed
+		Long defaultRoleId = roleRegistry.getRequired(DEFAULT_ROLE).getId();
 
-		// save user in the database
-		User savedUser = userDao.save(user);
-		logger.info("Successfully saved user from DTO: {}", savedUser.getUserName());
-		
-		return convertToDto(savedUser);
+		User savedUser;
+		try {
+			// insert-only transaction: attach the default role and save
+			savedUser = transactionTemplate.execute(status -> {
+				// give user default role of "employee"
+				user.setRoles(Arrays.asList(roleDao.getReference(defaultRoleId)));
+
+				// save user in the database
+				return userDao.save(user);
+			});
+		} catch (DataIntegrityViolationException e) {
+			String violated = violatedUniqueConstraint(e);
+			if (violated != null) {
+				throw duplicate(violated, userName, email, e);
+			}
+			throw e;
+		}
+
+		// committed by now, so listeners never see a registration that was rolled back
+		eventPublisher.publishEvent(new UserRegisteredEvent(savedUser.getId(), savedUser.getUserName()));
+		return savedUser;
+	}
+
+	private static UserAlreadyExistsException duplicate(String constraintName, String userName, String email,
+			Throwable cause) {
+		return User.EMAIL_CONSTRAINT.equals(constraintName)
+				? new UserAlreadyExistsException("User already exists with email: " + email, cause)
+				: new UserAlreadyExistsException("User already exists with username: " + userName, cause);
+	}
+
+	/**
+	 * Work out which unique constraint a failed insert violated
+	 * @param e the translated integrity violation
+	 * @return the matching constraint name, or null if it was neither username nor email
+	 */
+	private String violatedUniqueConstraint(DataIntegrityViolationException e) {
+		String constraintName = null;
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof ConstraintViolationException violation) {
+				constraintName = violation.getConstraintName();
+				break;
+			}
+		}
+
+		// fall back to the driver message, and accept the default postgres names of older schemas
+		String detail = (constraintName != null ? constraintName : String.valueOf(e.getMostSpecificCause().getMessage()))
+				.toLowerCase(Locale.ROOT);
+		if (detail.contains(User.EMAIL_CONSTRAINT) || detail.contains("users_email_key")) {
+			return User.EMAIL_CONSTRAINT;
+		}
+		if (detail.contains(User.USERNAME_CONSTRAINT) || detail.contains("users_username_key")) {
+			return User.USERNAME_CONSTRAINT;
+		}
+		return null;
 	}
 
 	@Override
 	@Transactional(readOnly = true)
 	public List<UserDto> findAllUsers() {
 		logger.debug("Finding all users");
-		List<User> users = userDao.findAll();
-		return users.stream()
-				.map(this::convertToDto)
-				.collect(Collectors.toList());
+		return userQueryDao.findAll();
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public UserPage findUsersPage(String afterUsername, int pageSize) {
+		int limit = pageSize <= 0 ? defaultPageSize : Math.min(pageSize, maxPageSize);
+		logger.debug("Finding page of {} users after: {}", limit, afterUsername);
+
+		// read one extra row to know whether another page follows
+		List<UserDto> content = userQueryDao.findPage(afterUsername, limit + 1);
+		boolean hasNext = content.size() > limit;
+		if (hasNext) {
+			content = content.subList(0, limit);
+		}
+
+		String nextCursor = hasNext ? content.get(content.size() - 1).getUsername() : null;
+		return new UserPage(content, nextCursor);
+	}
+
+	@Override
+	@Transactional(propagation = Propagation.MANDATORY)
+	public Stream<UserDto> streamAllUsers() {
+		logger.debug("Streaming all users");
+		return userQueryDao.streamAll(streamFetchSize);
 	}
 
 	@Override
 	@Transactional(readOnly = true)
 	public UserDto findById(Long id) {
 		logger.debug("Finding user by ID: {}", id);
-		User user = userDao.findById(id);
+		UserDto user = userQueryDao.findById(id);
 		if (user == null) {
 			throw new UserNotFoundException(id);
 		}
-		return convertToDto(user);
+		return user;
 	}
 
 	@Override
 	@Transactional(readOnly = true)
 	public boolean existsByUsername(String username) {
-		return userDao.findByUserName(username) != null;
+		return userDao.existsByUserName(username);
 	}
 
 	@Override
 	@Transactional(readOnly = true)
 	public boolean existsByEmail(String email) {
-		return userDao.findByEmail(email) != null;
+		return userDao.existsByEmail(email);
 	}
 
 	@Override
-	@Transactional(readOnly = true)
+	@Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
 	public UserDetails loadUserByUsername(String userName) throws UsernameNotFoundException {
 		logger.debug("Loading user by username: {}", userName);
-		User user = userDao.findByUserName(userName);
+		UserAccount account = userAccountCache.findByUserName(userName);
 
-		if (user == null) {
+		if (account == null) {
 			logger.warn("User not found with username: {}", userName);
 			throw new UsernameNotFoundException("Invalid username or password.");
 		}
 
-		Collection<SimpleGrantedAuthority> authorities = mapRolesToAuthorities(user.getRoles());
+		// shared authority list per role combination, and the hierarchy compiled into one mask
+		List<GrantedAuthority> authorities = roleRegistry.authoritiesFor(account.getRoleNames());
 		logger.debug("Successfully loaded user: {} with {} authorities", userName, authorities.size());
 
-		return new org.springframework.security.core.userdetails.User(user.getUserName(), user.getPassword(),
-				authorities);
+		// a new UserDetails per call: the provider erases its credentials after authentication
+		return new RoleMaskUserDetails(account.getUserName(), account.getPassword(), authorities,
+				roleRegistry.effectiveMaskOf(account.getRoleNames()));
 	}
 
 	/**
-	 * Convert User entity to UserDto
+	 * Convert User entity to UserDto; package-private for the mapping benchmark
 	 * @param user the user entity
 	 * @return user DTO
 	 */
-	private UserDto convertToDto(User user) {
+	static UserDto convertToDto(User user) {
 		Set<String> roleNames = user.getRoles().stream()
 				.map(Role::getName)
 				.collect(Collectors.toSet());
@@ -191,15 +300,4 @@ public class UserServiceImpl implements UserService {
 				roleNames
 		);
 	}
-
-	private Collection<SimpleGrantedAuthority> mapRolesToAuthorities(Collection<Role> roles) {
-		Collection<SimpleGrantedAuthority> authorities = new ArrayList<>();
-
-		for (Role tempRole : roles) {
-			SimpleGrantedAuthority tempAuthority = new SimpleGrantedAuthority(tempRole.getName());
-			authorities.add(tempAuthority);
-		}
-
-		return authorities;
-	}
 }
@@ -0,0 +1,143 @@
+package com.jihan.springboot.usermanagement.session;
+
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Session handed out by the {@link JdbcSessionRepository}
+ *
+ * Wraps a {@link MapSession} and records what a request changed, so that saving
+ * writes the attributes only when they were modified and otherwise just queues
+ * the new last-access time.
+ *
+ * @author Jihan
+ * @version 1.0.0
+ */
+public final class JdbcSession implements Session {
+
+    private final MapSession delegate;
+
+    private boolean isNew;
+    private String originalId;
+    private long revision;
+    private boolean attributesChanged;
+    private boolean lastAccessChanged;
+
+    JdbcSession(MapSession delegate, long revision, boolean isNew) {
+        this.delegate = delegate;
+        this.originalId = delegate.getId();
+        this.revision = revision;
+        this.isNew = isNew;
+        this.attributesChanged = isNew;
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public String changeSessionId() {
+        return delegate.changeSessionId();
+    }
+
+    @Override
+    public <T> T getAttribute(String attributeName) {
+        return delegate.getAttribute(attributeName);
+    }
+
+    @Override
+    public Set<String> getAttributeNames() {
+        return delegate.getAttributeNames();
+    }
+
+    @Override
+    public void setAttribute(String attributeName, Object attributeValue) {
+        delegate.setAttribute(attributeName, attributeValue);
+        attributesChanged = true;
+    }
+
+    @Override
+    public void removeAttribute(String attributeName) {
+        if (delegate.getAttribute(attributeName) != null) {
+            delegate.removeAttribute(attributeName);
+            attributesChanged = true;
+        }
+    }
+
+    @Override
+    public Instant getCreationTime() {
+        return delegate.getCreationTime();
+    }
+
+    @Override
+    public void setLastAccessedTime(Instant lastAccessedTime) {
+        delegate.setLastAccessedTime(lastAccessedTime);
+        lastAccessChanged = true;
+    }
+
+    @Override
+    public Instant getLastAccessedTime() {
+        return delegate.getLastAccessedTime();
+    }
+
+    @Override
+    public void setMaxInactiveInterval(Duration interval) {
+        delegate.setMaxInactiveInterval(interval);
+        attributesChanged = true;
+    }
+
+    @Override
+    public Duration getMaxInactiveInterval() {
+        return delegate.getMaxInactiveInterval();
+    }
+
+    @Override
+    public boolean isExpired() {
+        return delegate.isExpired();
+    }
+
+    MapSession getDelegate() {
+        return delegate;
+    }
+
+    boolean isNew() {
+        return isNew;
+    }
+
+    String getOriginalId() {
+        return originalId;
+    }
+
+    boolean isIdChanged() {
+        return !originalId.equals(delegate.getId());
+    }
+
+    boolean isAttributesChanged() {
+        return attributesChanged;
+    }
+
+    boolean isLastAccessChanged() {
+        return lastAccessChanged;
+    }
+
+    long getRevision() {
+        return revision;
+    }
+
+    /**
+     * Called once the session has been written, so a second save in the same
+     * request does not repeat the write
+     */
+    void markSaved(long savedRevision) {
+        isNew = false;
+        originalId = delegate.getId();
+        revision = savedRevision;
+        attributesChanged = false;
+        lastAccessChanged = false;
+    }
+}
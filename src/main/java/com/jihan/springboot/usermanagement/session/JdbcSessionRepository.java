@@ -0,0 +1,364 @@
+package com.jihan.springboot.usermanagement.session;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.MapSession;
+import org.springframework.session.PrincipalNameIndexResolver;
+import org.springframework.session.Session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Session repository backed by the {@code http_sessions} table, shared by all nodes
+ *
+ * Three things keep the database off the hot path of every request:
+ * <ul>
+ *   <li>Attributes are written only when a request changed them. A request that
+ *       merely touched the session queues its last-access time, and the queue is
+ *       flushed as one JDBC batch every {@code app.session.jdbc.flush-interval-ms}.</li>
+ *   <li>Every write stores a new random revision. Each node keeps deserialized
+ *       sessions in a near-cache and, on lookup, reads only the revision and
+ *       last-access time by primary key; the attribute blob is read and deserialized only
+ *       when another node has changed the session since.</li>
+ *   <li>Sessions are indexed by principal name, which backs the cluster-wide
+ *       {@code SpringSessionBackedSessionRegistry} used for maximumSessions.</li>
+ * </ul>
+ * Concurrent attribute writes to one session from two nodes are last-writer-wins.
+ *
+ * @author Jihan
+ * @version 1.0.0
+ */
+public class JdbcSessionRepository implements FindByIndexNameSessionRepository<JdbcSession>, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcSessionRepository.class);
+
+    private static final String INSERT_SESSION =
+            "insert into http_sessions (session_id, revision, principal_name, creation_time, last_access_time, "
+            + "max_inactive_seconds, expiry_time, attributes) values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SESSION =
+            "update http_sessions set session_id = ?, revision = ?, principal_name = ?, last_access_time = ?, "
+            + "max_inactive_seconds = ?, expiry_time = ?, attributes = ? where session_id = ?";
+
+    private static final String UPDATE_LAST_ACCESS =
+            "update http_sessions set last_access_time = ?, expiry_time = ? "
+            + "where session_id = ? and last_access_time < ?";
+
+    private static final String SELECT_REVISION =
+            "select revision, last_access_time from http_sessions where session_id = ?";
+
+    private static final String SELECT_SESSION =
+            "select session_id, revision, creation_time, last_access_time, max_inactive_seconds, attributes "
+            + "from http_sessions where session_id = ?";
+
+    private static final String SELECT_SESSIONS_BY_PRINCIPAL =
+            "select session_id, revision, creation_time, last_access_time, max_inactive_seconds, attributes "
+            + "from http_sessions where principal_name = ? and expiry_time > ?";
+
+    private static final String SELECT_RECENT_PRINCIPALS =
+            "select principal_name from http_sessions where principal_name is not null and expiry_time > ? "
+            + "group by principal_name order by max(last_access_time) desc limit ?";
+
+    private static final String DELETE_SESSION = "delete from http_sessions where session_id = ?";
+
+    private static final String DELETE_EXPIRED_SESSIONS = "delete from http_sessions where expiry_time < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration defaultMaxInactiveInterval;
+    private final Duration cleanupGrace;
+    private final PrincipalNameIndexResolver<Session> principalNameResolver = new PrincipalNameIndexResolver<>();
+    private final SerializingConverter serializer = new SerializingConverter();
+    private final DeserializingConverter deserializer;
+
+    private final Cache<String, CachedSession> nearCache;
+    private final Map<String, Instant> pendingLastAccess = new ConcurrentHashMap<>();
+
+    private final Counter nearCacheHits;
+    private final Counter nearCacheMisses;
+
+    /**
+     * @param jdbcTemplate template on the primary database
+     * @param defaultMaxInactiveInterval timeout of new sessions
+     * @param nearCacheSize maximum number of sessions cached on this node
+     * @param flushInterval how often queued last-access times are written; expired
+     *                      sessions are deleted only after twice this grace, so a
+     *                      queued access is never lost to the cleanup
+     * @param classLoader class loader for attribute deserialization
+     * @param meterRegistry registry for the near-cache and write queue metrics
+     */
+    public JdbcSessionRepository(JdbcTemplate jdbcTemplate, Duration defaultMaxInactiveInterval, int nearCacheSize,
+                                 Duration flushInterval, ClassLoader classLoader, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.defaultMaxInactiveInterval = defaultMaxInactiveInterval;
+        this.cleanupGrace = flushInterval.multipliedBy(2);
+        this.deserializer = new DeserializingConverter(classLoader);
+        this.nearCache = Caffeine.newBuilder()
+                .maximumSize(nearCacheSize)
+                .expireAfterAccess(defaultMaxInactiveInterval)
+                .build();
+
+        this.nearCacheHits = Counter.builder("session.store.near.cache")
+                .tag("result", "hit")
+                .description("Session lookups answered without reading the attributes")
+                .register(meterRegistry);
+        this.nearCacheMisses = Counter.builder("session.store.near.cache")
+                .tag("result", "miss")
+                .description("Session lookups that read and deserialized the attributes")
+                .register(meterRegistry);
+        Gauge.builder("session.store.pending.writes", pendingLastAccess, Map::size)
+                .description("Last-access updates waiting for the next batch")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public JdbcSession createSession() {
+        MapSession session = new MapSession();
+        session.setMaxInactiveInterval(defaultMaxInactiveInterval);
+        return new JdbcSession(session, 0L, true);
+    }
+
+    @Override
+    public void save(JdbcSession session) {
+        if (session.isNew()) {
+            long revision = nextRevision();
+            MapSession state = session.getDelegate();
+            jdbcTemplate.update(INSERT_SESSION, state.getId(), revision, principalName(session),
+                    state.getCreationTime().toEpochMilli(), state.getLastAccessedTime().toEpochMilli(),
+                    (int) state.getMaxInactiveInterval().toSeconds(), expiryTime(state), serialize(state));
+            saved(session, revision);
+        } else if (session.isAttributesChanged() || session.isIdChanged()) {
+            long revision = nextRevision();
+            MapSession state = session.getDelegate();
+            int updated = jdbcTemplate.update(UPDATE_SESSION, state.getId(), revision, principalName(session),
+                    state.getLastAccessedTime().toEpochMilli(), (int) state.getMaxInactiveInterval().toSeconds(),
+                    expiryTime(state), serialize(state), session.getOriginalId());
+            if (updated == 0) {
+                // deleted meanwhile, e.g. logged out on another node: do not resurrect it
+                logger.debug("Session {} no longer exists, changes discarded", session.getOriginalId());
+                nearCache.invalidate(session.getOriginalId());
+                return;
+            }
+            if (session.isIdChanged()) {
+                nearCache.invalidate(session.getOriginalId());
+                pendingLastAccess.remove(session.getOriginalId());
+            }
+            saved(session, revision);
+        } else if (session.isLastAccessChanged()) {
+            // write-behind: only the timestamp changed, batch it with the other sessions
+            pendingLastAccess.merge(session.getId(), session.getLastAccessedTime(),
+                    (queued, latest) -> latest.isAfter(queued) ? latest : queued);
+            session.markSaved(session.getRevision());
+        }
+    }
+
+    @Override
+    public JdbcSession findById(String id) {
+        List<RevisionRow> rows = jdbcTemplate.query(SELECT_REVISION, (rs, rowNum) ->
+                new RevisionRow(rs.getLong("revision"), rs.getLong("last_access_time")), id);
+        if (rows.isEmpty()) {
+            nearCache.invalidate(id);
+            pendingLastAccess.remove(id);
+            return null;
+        }
+        RevisionRow row = rows.get(0);
+
+        CachedSession cached = nearCache.getIfPresent(id);
+        MapSession state;
+        if (cached != null && cached.revision == row.revision) {
+            nearCacheHits.increment();
+            state = new MapSession(cached.state);
+        } else {
+            nearCacheMisses.increment();
+            List<JdbcSession> loaded = jdbcTemplate.query(SELECT_SESSION, sessionRowMapper(), id);
+            return loaded.isEmpty() ? null : activeOrNull(loaded.get(0));
+        }
+
+        // the cached copy may predate accesses flushed by other nodes
+        if (row.lastAccessTime > state.getLastAccessedTime().toEpochMilli()) {
+            state.setLastAccessedTime(Instant.ofEpochMilli(row.lastAccessTime));
+        }
+        return activeOrNull(new JdbcSession(state, row.revision, false));
+    }
+
+    @Override
+    public void deleteById(String id) {
+        jdbcTemplate.update(DELETE_SESSION, id);
+        nearCache.invalidate(id);
+        pendingLastAccess.remove(id);
+    }
+
+    @Override
+    public Map<String, JdbcSession> findByIndexNameAndIndexValue(String indexName, String indexValue) {
+        if (!PRINCIPAL_NAME_INDEX_NAME.equals(indexName)) {
+            return Map.of();
+        }
+        List<JdbcSession> sessions = jdbcTemplate.query(SELECT_SESSIONS_BY_PRINCIPAL, sessionRowMapper(),
+                indexValue, Instant.now().toEpochMilli());
+
+        Map<String, JdbcSession> byId = new LinkedHashMap<>();
+        for (JdbcSession session : sessions) {
+            applyPendingLastAccess(session.getDelegate());
+            if (!session.isExpired()) {
+                byId.put(session.getId(), session);
+            }
+        }
+        return byId;
+    }
+
+    /**
+     * Find the principals of the most recently used live sessions, across all nodes
+     * @param limit maximum number of principal names
+     * @return principal names, most recently active first
+     */
+    public List<String> findRecentPrincipalNames(int limit) {
+        return jdbcTemplate.queryForList(SELECT_RECENT_PRINCIPALS, String.class,
+                Instant.now().toEpochMilli(), limit);
+    }
+
+    /**
+     * Write the queued last-access times in one batch
+     */
+    @Scheduled(fixedDelayString = "${app.session.jdbc.flush-interval-ms:1000}")
+    public void flushLastAccessTimes() {
+        if (pendingLastAccess.isEmpty()) {
+            return;
+        }
+        Map<String, Instant> batch = new HashMap<>(pendingLastAccess);
+
+        List<Object[]> args = new ArrayList<>(batch.size());
+        batch.forEach((id, lastAccess) -> {
+            CachedSession cached = nearCache.getIfPresent(id);
+            Duration maxInactive = cached != null ? cached.state.getMaxInactiveInterval() : defaultMaxInactiveInterval;
+            long lastAccessMillis = lastAccess.toEpochMilli();
+            args.add(new Object[] { lastAccessMillis, lastAccessMillis + maxInactive.toMillis(), id, lastAccessMillis });
+        });
+
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_LAST_ACCESS, args);
+            // keep entries that were touched again while the batch was written
+            batch.forEach(pendingLastAccess::remove);
+            logger.debug("Flushed last-access times of {} sessions", batch.size());
+        } catch (DataAccessException e) {
+            logger.warn("Could not flush last-access times of {} sessions, retrying with the next batch",
+                    batch.size(), e);
+        }
+    }
+
+    /**
+     * Delete sessions that expired on every node
+     */
+    @Scheduled(fixedDelayString = "${app.session.jdbc.cleanup-interval-ms:60000}")
+    public void deleteExpiredSessions() {
+        int deleted = jdbcTemplate.update(DELETE_EXPIRED_SESSIONS,
+                Instant.now().minus(cleanupGrace).toEpochMilli());
+        if (deleted > 0) {
+            logger.debug("Deleted {} expired sessions", deleted);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        flushLastAccessTimes();
+    }
+
+    private void saved(JdbcSession session, long revision) {
+        session.markSaved(revision);
+        nearCache.put(session.getId(), new CachedSession(revision, new MapSession(session.getDelegate())));
+    }
+
+    private JdbcSession activeOrNull(JdbcSession session) {
+        applyPendingLastAccess(session.getDelegate());
+        // expired rows are left to deleteExpiredSessions: another node may still
+        // hold a queued access that has not been flushed yet
+        return session.isExpired() ? null : session;
+    }
+
+    private void applyPendingLastAccess(MapSession state) {
+        Instant pending = pendingLastAccess.get(state.getId());
+        if (pending != null && pending.isAfter(state.getLastAccessedTime())) {
+            state.setLastAccessedTime(pending);
+        }
+    }
+
+    private RowMapper<JdbcSession> sessionRowMapper() {
+        return (rs, rowNum) -> {
+            MapSession state = new MapSession(rs.getString("session_id"));
+            state.setCreationTime(Instant.ofEpochMilli(rs.getLong("creation_time")));
+            state.setLastAccessedTime(Instant.ofEpochMilli(rs.getLong("last_access_time")));
+            state.setMaxInactiveInterval(Duration.ofSeconds(rs.getInt("max_inactive_seconds")));
+            deserialize(rs.getBytes("attributes")).forEach(state::setAttribute);
+
+            long revision = rs.getLong("revision");
+            nearCache.put(state.getId(), new CachedSession(revision, new MapSession(state)));
+            return new JdbcSession(state, revision, false);
+        };
+    }
+
+    private String principalName(JdbcSession session) {
+        return principalNameResolver.resolveIndexValueFor(session);
+    }
+
+    private byte[] serialize(MapSession state) {
+        Map<String, Object> attributes = new HashMap<>();
+        for (String name : state.getAttributeNames()) {
+            attributes.put(name, state.getAttribute(name));
+        }
+        return serializer.convert(attributes);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> deserialize(byte[] bytes) {
+        return (Map<String, Object>) deserializer.convert(bytes);
+    }
+
+    private static long expiryTime(MapSession state) {
+        return state.getLastAccessedTime().plus(state.getMaxInactiveInterval()).toEpochMilli();
+    }
+
+    private static long nextRevision() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    private static final class RevisionRow {
+
+        private final long revision;
+        private final long lastAccessTime;
+
+        private RevisionRow(long revision, long lastAccessTime) {
+            this.revision = revision;
+            this.lastAccessTime = lastAccessTime;
+        }
+    }
+
+    private static final class CachedSession {
+
+        private final long revision;
+        private final MapSession state;
+
+        private CachedSession(long revision, MapSession state) {
+            this.revision = revision;
+            this.state = state;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.jihan.springboot.usermanagement.audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+import java.util.List;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.audit.AuditEvent;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.jihan.springboot.usermanagement.dto.UserRegistrationDto;
+import com.jihan.springboot.usermanagement.service.UserImportService;
+import com.jihan.springboot.usermanagement.service.UserService;
+
+/**
+ * Registrations, imported accounts included, and login outcomes end up in audit_events without the request
+ * writing them, and a full buffer drops events and counts them instead of
+ * stalling the caller indefinitely.
+ */
+@SpringBootTest(properties = {
+		"app.audit.enabled=true",
+		"spring.sql.init.schema-locations=classpath:sql/audit-events.sql"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuditTrailTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserImportService userImportService;
+
+	@Autowired
+	private JdbcAuditEventRepository auditEventRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void registrationAndLoginOutcomesAreRecorded() throws Exception {
+		userService.save(new UserRegistrationDto("audited", "secret123", "Audit", "Ed", "audited@example.com"));
+
+		mockMvc.perform(post("/authenticateTheUser").with(csrf())
+						.param("username", "audited")
+						.param("password", "secret123"))
+				.andExpect(status().is3xxRedirection());
+		mockMvc.perform(post("/authenticateTheUser").with(csrf())
+						.param("username", "audited")
+						.param("password", "wrong-password"))
+				.andExpect(status().is3xxRedirection());
+
+		auditEventRepository.flush();
+
+		List<AuditEvent> events = auditEventRepository.find("audited", null, null);
+		assertThat(events).extracting(AuditEvent::getType)
+				.containsExactly(RegistrationAuditListener.USER_REGISTERED, "AUTHENTICATION_SUCCESS",
+						"AUTHENTICATION_FAILURE");
+		assertThat(events.get(1).getData()).containsKey("remoteAddress");
+		assertThat(events.get(2).getData().get("detail")).asString().contains("BadCredentialsException");
+	}
+
+	@Test
+	void importedAccountsAreRecordedAsRegistrations() {
+		userImportService.importUsers(List.of(
+				new UserRegistrationDto("imported1", "secret123", "Imported", "One", "imported1@example.com"),
+				new UserRegistrationDto("imported2", "secret123", "Imported", "Two", "imported2@example.com")));
+
+		auditEventRepository.flush();
+
+		for (String userName : List.of("imported1", "imported2")) {
+			assertThat(auditEventRepository.find(userName, null, null))
+					.singleElement()
+					.satisfies(event -> {
+						assertThat(event.getType()).isEqualTo(RegistrationAuditListener.USER_REGISTERED);
+						assertThat(event.getData().get("detail")).asString().contains("source=import");
+					});
+		}
+	}
+
+	@Test
+	void fullBufferDropsAndCountsEvents() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		// never started, so nothing drains the buffer until flush()
+		JdbcAuditEventRepository repository = new JdbcAuditEventRepository(jdbcTemplate, meterRegistry,
+				2, "block", Duration.ofMillis(10), 100, Duration.ofSeconds(1), Duration.ofSeconds(1));
+
+		for (int i = 0; i < 3; i++) {
+			repository.add(new AuditEvent("overflow", "AUTHENTICATION_FAILURE", "type=test"));
+		}
+
+		assertThat(meterRegistry.get("audit.events.backlog").gauge().value()).isEqualTo(2);
+		assertThat(meterRegistry.get("audit.events.dropped").tag("reason", "overflow").counter().count())
+				.isEqualTo(1);
+
+		repository.flush();
+
+		assertThat(meterRegistry.get("audit.events.backlog").gauge().value()).isZero();
+		assertThat(meterRegistry.get("audit.events.written").counter().count()).isEqualTo(2);
+		assertThat(repository.find("overflow", null, "AUTHENTICATION_FAILURE")).hasSize(2);
+	}
+}
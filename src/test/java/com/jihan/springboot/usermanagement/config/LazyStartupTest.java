@@ -0,0 +1,33 @@
+package com.jihan.springboot.usermanagement.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * With lazy initialization (the fast-start profile) the login path is still
+ * created at startup, while admin-only services wait for their first use.
+ */
+@SpringBootTest(properties = "spring.main.lazy-initialization=true")
+@ActiveProfiles("test")
+class LazyStartupTest {
+
+	@Autowired
+	private ConfigurableListableBeanFactory beanFactory;
+
+	@Test
+	void loginPathIsEagerAndAdminServicesAreLazy() {
+		assertThat(beanFactory.containsSingleton("entityManagerFactory")).isTrue();
+		assertThat(beanFactory.containsSingleton("passwordEncoder")).isTrue();
+		assertThat(beanFactory.containsSingleton("roleRegistry")).isTrue();
+		assertThat(beanFactory.containsSingleton("userAccountCache")).isTrue();
+		assertThat(beanFactory.containsSingleton("filterChain")).isTrue();
+
+		assertThat(beanFactory.containsSingleton("userExportService")).isFalse();
+		assertThat(beanFactory.containsSingleton("userImportService")).isFalse();
+	}
+}
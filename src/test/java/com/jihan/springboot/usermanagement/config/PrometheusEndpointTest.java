@@ -0,0 +1,59 @@
+package com.jihan.springboot.usermanagement.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * The hot-path meters are scrapeable with the metrics account only: login
+ * outcomes, registration outcomes, bcrypt and DAO timers with their SLO buckets.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+class PrometheusEndpointTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void loginAndRegistrationMetricsAreScrapeable() throws Exception {
+		mockMvc.perform(post("/authenticateTheUser").with(csrf())
+						.param("username", "nosuchuser")
+						.param("password", "wrong-password"))
+				.andExpect(status().is3xxRedirection());
+		mockMvc.perform(post("/register/processRegistrationForm").with(csrf()))
+				.andExpect(status().isOk());
+
+		String scrape = mockMvc.perform(get("/actuator/prometheus").with(httpBasic("prometheus", "scrape-secret")))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		assertThat(scrape).containsPattern("security_login_total\\{[^}]*channel=\"form\"[^}]*result=\"bad_credentials\"[^}]*} 1\\.0");
+		assertThat(scrape).containsPattern("user_registrations_total\\{[^}]*outcome=\"invalid\"[^}]*} 1\\.0");
+		assertThat(scrape).containsPattern("security_password_hashing_seconds_bucket\\{[^}]*le=\"0\\.25\"");
+		assertThat(scrape).containsPattern("user_dao_seconds_bucket\\{[^}]*method=\"findByUserName\"");
+		assertThat(scrape).contains("cache_gets_total");
+		assertThat(scrape).doesNotContain("nosuchuser");
+	}
+
+	@Test
+	void scrapeRequiresTheMetricsAccount() throws Exception {
+		mockMvc.perform(get("/actuator/prometheus"))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/actuator/prometheus").with(httpBasic("prometheus", "wrong-secret")))
+				.andExpect(status().isUnauthorized());
+	}
+}
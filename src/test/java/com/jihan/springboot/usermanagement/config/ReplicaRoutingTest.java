@@ -0,0 +1,91 @@
+package com.jihan.springboot.usermanagement.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Read-only transactions use the replica pool while it is within the lag limit;
+ * read-write transactions always use the primary. Runs against two in-memory
+ * databases standing in for primary and replica.
+ */
+@SpringBootTest(properties = {
+		"app.datasource.replica.enabled=true",
+		"app.datasource.replica.url=jdbc:h2:mem:replica_${random.uuid}",
+		"app.datasource.replica.username=sa",
+		"app.datasource.replica.password=",
+		"app.datasource.replica.driver-class-name=org.h2.Driver",
+		"app.datasource.replica.lag-query=select 0",
+		"app.datasource.replica.lag-check-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+class ReplicaRoutingTest {
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private HikariDataSource replicaDataSource;
+
+	@Autowired
+	private HikariDataSource primaryDataSource;
+
+	@Autowired
+	private ReplicaLagMonitor replicaLagMonitor;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void readOnlyTransactionsUseTheReplicaOnceItIsHealthy() {
+		replicaLagMonitor.checkLag();
+		assertThat(replicaLagMonitor.isReplicaUsable()).isTrue();
+
+		assertThat(connectionUrl(true)).isEqualTo(replicaDataSource.getJdbcUrl());
+		assertThat(connectionUrl(false)).isEqualTo(primaryDataSource.getJdbcUrl());
+	}
+
+	@Test
+	void laggingReplicaIsNotUsed() {
+		ReplicaLagMonitor lagging = new ReplicaLagMonitor(replicaDataSource, Duration.ofSeconds(2), "select 30",
+				new SimpleMeterRegistry());
+		lagging.checkLag();
+		assertThat(lagging.isReplicaUsable()).isFalse();
+
+		ReplicaLagMonitor unreachable = new ReplicaLagMonitor(replicaDataSource, Duration.ofSeconds(2),
+				"select no_such_column", new SimpleMeterRegistry());
+		unreachable.checkLag();
+		assertThat(unreachable.isReplicaUsable()).isFalse();
+	}
+
+	private String connectionUrl(boolean readOnly) {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setReadOnly(readOnly);
+		return transactionTemplate.execute(status -> {
+			Connection connection = DataSourceUtils.getConnection(dataSource);
+			try {
+				return connection.getMetaData().getURL();
+			} catch (SQLException e) {
+				throw new IllegalStateException(e);
+			} finally {
+				DataSourceUtils.releaseConnection(connection, dataSource);
+			}
+		});
+	}
+}
@@ -0,0 +1,114 @@
+package com.jihan.springboot.usermanagement.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * The warm-up runs every phase while the context refuses traffic, fills the
+ * pool to its minimum-idle, and publishes how long each phase took.
+ */
+@SpringBootTest(properties = {
+		"app.warmup.enabled=true",
+		"app.warmup.query-iterations=5",
+		"app.warmup.hash-cycles=2",
+		"spring.datasource.hikari.minimum-idle=3",
+		"spring.datasource.hikari.maximum-pool-size=5"
+})
+@ActiveProfiles("test")
+class WarmUpRunnerTest {
+
+	private static final String[] PHASES = {"pools", "queries", "hashing", "preload", "total"};
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private ReadinessRecorder readiness;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Test
+	void refusesTrafficUntilWarmUpCompletes() {
+		assertThat(readiness.changes).extracting(ReadinessChange::state)
+				.containsExactly(ReadinessState.REFUSING_TRAFFIC, ReadinessState.ACCEPTING_TRAFFIC);
+		assertThat(readiness.changes.get(0).phasesTimed()).isZero();
+		assertThat(readiness.changes.get(1).phasesTimed()).isEqualTo(PHASES.length);
+
+		for (String phase : PHASES) {
+			Timer timer = completed(phase);
+			assertThat(timer).as(phase).isNotNull();
+			assertThat(timer.count()).as(phase).isEqualTo(1);
+		}
+	}
+
+	@Test
+	void poolHoldsMinimumIdleAfterWarmUp() {
+		HikariDataSource pool = DataSourceUnwrapper.unwrap(dataSource, HikariConfigMXBean.class,
+				HikariDataSource.class);
+
+		assertThat(pool).isNotNull();
+		assertThat(pool.getHikariPoolMXBean()).isNotNull();
+		assertThat(pool.getHikariPoolMXBean().getTotalConnections()).isGreaterThanOrEqualTo(3);
+	}
+
+	private Timer completed(String phase) {
+		return meterRegistry.find("app.warmup").tag("phase", phase).tag("outcome", "completed").timer();
+	}
+
+	record ReadinessChange(ReadinessState state, int phasesTimed) {
+	}
+
+	/**
+	 * Records each readiness change with the number of warm-up phases timed by then
+	 */
+	static class ReadinessRecorder {
+
+		private final MeterRegistry meterRegistry;
+
+		private final List<ReadinessChange> changes = new CopyOnWriteArrayList<>();
+
+		ReadinessRecorder(MeterRegistry meterRegistry) {
+			this.meterRegistry = meterRegistry;
+		}
+
+		@EventListener
+		void onReadinessChange(AvailabilityChangeEvent<ReadinessState> event) {
+			int phasesTimed = 0;
+			for (String phase : PHASES) {
+				if (meterRegistry.find("app.warmup").tag("phase", phase).timer() != null) {
+					phasesTimed++;
+				}
+			}
+			changes.add(new ReadinessChange(event.getState(), phasesTimed));
+		}
+	}
+
+	@TestConfiguration
+	static class ReadinessRecorderConfig {
+
+		@Bean
+		ReadinessRecorder readinessRecorder(MeterRegistry meterRegistry) {
+			return new ReadinessRecorder(meterRegistry);
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package com.jihan.springboot.usermanagement.dao;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.jihan.springboot.usermanagement.dto.UserRegistrationDto;
+import com.jihan.springboot.usermanagement.entity.Role;
+import com.jihan.springboot.usermanagement.entity.User;
+import com.jihan.springboot.usermanagement.service.UserService;
+
+/**
+ * Once a user has been loaded, later findById calls in new persistence
+ * contexts are served from the second-level cache, roles included, and the
+ * region hits show up as cache.gets meters without Hibernate statistics.
+ */
+@SpringBootTest(properties = {
+		"spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+class UserDaoSecondLevelCacheTest {
+
+	@Autowired
+	private UserDao userDao;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void repeatedFindByIdDoesNotHitJdbc() {
+		userService.save(new UserRegistrationDto("cached", "secret123", "Cached", "User", "cached@example.com"));
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		Long id = transactionTemplate.execute(status -> userDao.findByUserName("cached").orElseThrow().getId());
+
+		// first load may populate the regions
+		transactionTemplate.execute(status -> userDao.findById(id).orElseThrow().getRoles().size());
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		double userHitsBefore = regionHits("users");
+		for (int i = 0; i < 3; i++) {
+			String roleName = transactionTemplate.execute(
+					status -> userDao.findById(id).orElseThrow().getRoles().stream().map(Role::getName).findFirst().orElseThrow());
+			assertThat(roleName).isEqualTo("ROLE_EMPLOYEE");
+		}
+
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+		assertThat(statistics.getDomainDataRegionStatistics("users").getHitCount()).isEqualTo(3);
+		assertThat(statistics.getDomainDataRegionStatistics("users.roles").getHitCount()).isGreaterThanOrEqualTo(3);
+		assertThat(statistics.getDomainDataRegionStatistics("roles").getHitCount()).isGreaterThanOrEqualTo(3);
+		assertThat(regionHits("users") - userHitsBefore).isEqualTo(3);
+	}
+
+	@Test
+	void regionsArePublishedWithoutHibernateStatistics() {
+		for (String region : new String[] {"users", "users.roles", "roles"}) {
+			assertThat(meterRegistry.find("cache.gets").tags("cache", region, "cache.manager", "hibernate").meters())
+					.isNotEmpty();
+		}
+	}
+
+	private double regionHits(String region) {
+		return meterRegistry.get("cache.gets")
+				.tags("cache", region, "cache.manager", "hibernate", "result", "hit")
+				.functionCounter()
+				.count();
+	}
+
+	@Test
+	void updatesAreVisibleThroughTheCache() {
+		userService.save(new UserRegistrationDto("cachedupd", "secret123", "Before", "Update", "cachedupd@example.com"));
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		Long id = transactionTemplate.execute(status -> userDao.findByUserName("cachedupd").orElseThrow().getId());
+		transactionTemplate.execute(status -> userDao.findById(id).orElseThrow().getFirstName());
+
+		transactionTemplate.executeWithoutResult(status -> {
+			User user = userDao.findById(id).orElseThrow();
+			user.setFirstName("After");
+			userDao.save(user);
+		});
+
+		String firstName = transactionTemplate.execute(status -> userDao.findById(id).orElseThrow().getFirstName());
+		assertThat(firstName).isEqualTo("After");
+	}
+}
@@ -0,0 +1,95 @@
+package com.jihan.springboot.usermanagement.dao;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.jihan.springboot.usermanagement.dto.UserDto;
+import com.jihan.springboot.usermanagement.dto.UserRegistrationDto;
+import com.jihan.springboot.usermanagement.service.UserSearchIndex;
+import com.jihan.springboot.usermanagement.service.UserService;
+
+/**
+ * The listing read path issues a fixed number of statements no matter how many
+ * users, and therefore role collections, it returns.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class UserQueryDaoStatementCountTest {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserSearchIndex userSearchIndex;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void enableStatistics() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@Test
+	void listingStatementCountDoesNotGrowWithUsers() {
+		register("count", 0, 3);
+		long fewUsers = countStatements(() -> userService.findAllUsers());
+		long fewUsersPage = countStatements(() -> userService.findUsersPage(null, 100));
+
+		register("count", 3, 20);
+		long manyUsers = countStatements(() -> userService.findAllUsers());
+		long manyUsersPage = countStatements(() -> userService.findUsersPage(null, 100));
+
+		assertThat(fewUsers).isEqualTo(1);
+		assertThat(manyUsers).isEqualTo(fewUsers);
+		assertThat(fewUsersPage).isEqualTo(2);
+		assertThat(manyUsersPage).isEqualTo(fewUsersPage);
+	}
+
+	@Test
+	void findByIdUsesOneStatementAndReturnsRoles() {
+		register("single", 0, 1);
+		Long id = userService.findAllUsers().stream()
+				.filter(user -> user.getUsername().equals("single0"))
+				.findFirst()
+				.map(UserDto::getId)
+				.orElseThrow();
+
+		statistics.clear();
+		UserDto user = userService.findById(id);
+
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+		assertThat(user.getRoles()).containsExactly("ROLE_EMPLOYEE");
+	}
+
+	private long countStatements(Runnable listing) {
+		statistics.clear();
+		listing.run();
+		assertThat(statistics.getEntityLoadCount()).isZero();
+		assertThat(statistics.getCollectionLoadCount()).isZero();
+		return statistics.getPrepareStatementCount();
+	}
+
+	private void register(String prefix, int from, int to) {
+		for (int i = from; i < to; i++) {
+			String userName = prefix + i;
+			userService.save(new UserRegistrationDto(userName, "secret123", "Count", "User" + i, userName + "@example.com"));
+		}
+		// the search index reloads registered users on its own thread; keep its queries out of the counts
+		String lastEmail = prefix + (to - 1) + "@example.com";
+		await().until(() -> !userSearchIndex.search(lastEmail, null, 1).getContent().isEmpty());
+	}
+}
@@ -0,0 +1,377 @@
+package com.jihan.springboot.usermanagement.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.jihan.springboot.usermanagement.dto.UserRegistrationDto;
+import com.jihan.springboot.usermanagement.service.UserService;
+
+/**
+ * Mixed login, registration and page traffic through the real filter chain of
+ * an embedded server, one account and cookie jar per virtual user. Runs with
+ * the loadtest profile against a local PostgreSQL (application-loadtest.properties),
+ * never the in-memory test database, so the numbers compare with production.
+ *
+ * Reports throughput and p50/p99/p99.9 per endpoint, writes them to
+ * target/loadtest/result-{mode}.properties and fails when an endpoint regresses
+ * past the stored baseline for the same mode by more than the threshold, or
+ * when more than 1% of its requests get an unexpected status. A run without a
+ * baseline fails too; record one on the machine that runs the comparison. The mode is
+ * "platform" or, with mvn test -Ploadtest,virtual-threads, "virtual"; comparing
+ * the two result files compares the execution modes.
+ * Run with mvn test -Ploadtest; options:
+ * -Dloadtest.users (16), -Dloadtest.warmup-seconds (5), -Dloadtest.duration-seconds (30),
+ * -Dloadtest.threshold (0.20), -Dloadtest.baseline (path) and
+ * -Dloadtest.update-baseline=true to store this run as the new baseline.
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+class LoginRegistrationLoadTest {
+
+	private static final Pattern CSRF_TOKEN = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+	private static final String[] ROLES = {"ROLE_EMPLOYEE", "ROLE_MANAGER", "ROLE_ADMIN"};
+	private static final String PASSWORD = "secret123";
+	private static final double MAX_ERROR_RATE = 0.01;
+
+	// traffic mix per virtual user step, in percent: fresh logins, registrations, the rest page hits
+	private static final int LOGIN_PERCENT = 10;
+	private static final int REGISTER_PERCENT = 5;
+
+	private final int users = Integer.getInteger("loadtest.users", 16);
+	private final int warmupSeconds = Integer.getInteger("loadtest.warmup-seconds", 5);
+	private final int durationSeconds = Integer.getInteger("loadtest.duration-seconds", 30);
+	private final double threshold = Double.parseDouble(System.getProperty("loadtest.threshold", "0.20"));
+
+	@LocalServerPort
+	private int port;
+
+	@Value("${server.servlet.context-path:}")
+	private String contextPath;
+
+	@Value("${spring.threads.virtual.enabled:false}")
+	private boolean virtualThreads;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+
+	@Test
+	void mixedTrafficStaysWithinBaseline() throws Exception {
+		for (String name : List.of("login", "register", "home", "leaders", "systems")) {
+			endpoints.put(name, new Endpoint());
+		}
+		for (int i = 0; i < users; i++) {
+			seedAccount(i);
+		}
+
+		long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+		long measureUntil = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+		String runId = Long.toString(System.currentTimeMillis(), 36);
+
+		ExecutorService pool = Executors.newFixedThreadPool(users);
+		try {
+			List<Future<?>> running = new ArrayList<>();
+			for (int i = 0; i < users; i++) {
+				VirtualUser user = new VirtualUser(i, runId, measureFrom);
+				running.add(pool.submit(() -> {
+					user.run(measureUntil);
+					return null;
+				}));
+			}
+			for (Future<?> future : running) {
+				future.get();
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		String mode = virtualThreads ? "virtual" : "platform";
+		Path baselineFile = Path.of(System.getProperty("loadtest.baseline",
+				"src/test/resources/loadtest/baseline-" + mode + ".properties"));
+
+		Properties result = report(mode);
+		store(result, Path.of("target", "loadtest", "result-" + mode + ".properties"));
+
+		List<String> failures = new ArrayList<>();
+		endpoints.forEach((name, endpoint) -> {
+			long count = endpoint.recorded;
+			if (count > 0 && (double) endpoint.errors.get() / count > MAX_ERROR_RATE) {
+				failures.add(name + ": " + endpoint.errors.get() + " of " + count + " requests failed");
+			}
+		});
+
+		if (Boolean.getBoolean("loadtest.update-baseline")) {
+			store(result, baselineFile);
+			System.out.println("Stored load test baseline in " + baselineFile.toAbsolutePath());
+		} else if (Files.exists(baselineFile)) {
+			failures.addAll(regressions(load(baselineFile), result));
+		} else {
+			failures.add("No load test baseline at " + baselineFile.toAbsolutePath()
+					+ "; rerun with -Dloadtest.update-baseline=true to store one");
+		}
+
+		assertThat(failures).isEmpty();
+	}
+
+	private void seedAccount(int index) {
+		String userName = accountName(index);
+		if (userService.existsByUsername(userName)) {
+			return;
+		}
+		userService.save(new UserRegistrationDto(userName, PASSWORD, "Load", "User" + index,
+				userName + "@example.com"));
+		String role = ROLES[index % ROLES.length];
+		if (!role.equals(ROLES[0])) {
+			// registration grants the default role only; the hierarchy implies the lower ones
+			jdbcTemplate.update("insert into users_roles (user_id, role_id) "
+					+ "select u.id, r.id from users u, roles r where u.username = ? and r.name = ?", userName, role);
+		}
+	}
+
+	private static String accountName(int index) {
+		return "loaduser" + index;
+	}
+
+	private Properties report(String mode) {
+		Properties result = new Properties();
+		StringBuilder table = new StringBuilder(String.format("%n%-10s %8s %10s %9s %9s %9s %7s%n",
+				"endpoint", "requests", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "errors"));
+		endpoints.forEach((name, endpoint) -> {
+			Histogram histogram = endpoint.latencies.getIntervalHistogram();
+			endpoint.recorded = histogram.getTotalCount();
+			double throughput = (double) histogram.getTotalCount() / durationSeconds;
+			double p50 = millis(histogram, 50.0);
+			double p99 = millis(histogram, 99.0);
+			double p999 = millis(histogram, 99.9);
+			table.append(String.format("%-10s %8d %10.1f %9.2f %9.2f %9.2f %7d%n", name, histogram.getTotalCount(),
+					throughput, p50, p99, p999, endpoint.errors.get()));
+			result.setProperty(name + ".throughput", String.format(Locale.ROOT, "%.1f", throughput));
+			result.setProperty(name + ".p50", String.format(Locale.ROOT, "%.2f", p50));
+			result.setProperty(name + ".p99", String.format(Locale.ROOT, "%.2f", p99));
+			result.setProperty(name + ".p999", String.format(Locale.ROOT, "%.2f", p999));
+		});
+		System.out.printf("load test (%s threads): %d users, %d s measured%s", mode, users, durationSeconds, table);
+		return result;
+	}
+
+	private List<String> regressions(Properties baseline, Properties result) {
+		List<String> regressions = new ArrayList<>();
+		for (String key : baseline.stringPropertyNames()) {
+			String current = result.getProperty(key);
+			if (current == null || key.endsWith(".p50")) {
+				continue;
+			}
+			double expected = Double.parseDouble(baseline.getProperty(key));
+			double actual = Double.parseDouble(current);
+			boolean regressed = key.endsWith(".throughput")
+					? actual < expected * (1 - threshold)
+					: actual > expected * (1 + threshold);
+			if (regressed) {
+				regressions.add(String.format("%s: %.2f against baseline %.2f (threshold %.0f%%)",
+						key, actual, expected, threshold * 100));
+			}
+		}
+		return regressions;
+	}
+
+	private static double millis(Histogram histogram, double percentile) {
+		return histogram.getValueAtPercentile(percentile) / 1_000_000.0;
+	}
+
+	private static Properties load(Path file) throws IOException {
+		Properties properties = new Properties();
+		try (InputStream in = Files.newInputStream(file)) {
+			properties.load(in);
+		}
+		return properties;
+	}
+
+	private static void store(Properties properties, Path file) throws IOException {
+		Files.createDirectories(file.toAbsolutePath().getParent());
+		try (OutputStream out = Files.newOutputStream(file)) {
+			properties.store(out, "throughput in requests/s, latencies in ms");
+		}
+	}
+
+	private static final class Endpoint {
+
+		private final Recorder latencies = new Recorder(3);
+		private final AtomicLong errors = new AtomicLong();
+		private long recorded;
+	}
+
+	/**
+	 * One simulated browser: its own account, session cookie and random sequence
+	 */
+	private final class VirtualUser {
+
+		private final int index;
+		private final String runId;
+		private final long measureFrom;
+		private final Random random;
+		private final int roleLevel;
+
+		private HttpClient session;
+		private int registrations;
+
+		private VirtualUser(int index, String runId, long measureFrom) {
+			this.index = index;
+			this.runId = runId;
+			this.measureFrom = measureFrom;
+			this.random = new Random(index);
+			this.roleLevel = index % ROLES.length;
+		}
+
+		private void run(long measureUntil) throws Exception {
+			login();
+			while (System.nanoTime() < measureUntil) {
+				int step = random.nextInt(100);
+				if (step < LOGIN_PERCENT) {
+					login();
+				} else if (step < LOGIN_PERCENT + REGISTER_PERCENT) {
+					register();
+				} else {
+					switch (random.nextInt(3)) {
+						case 0 -> page("home", "/", 0);
+						case 1 -> page("leaders", "/leaders", 1);
+						default -> page("systems", "/systems", 2);
+					}
+				}
+			}
+		}
+
+		private void login() throws Exception {
+			// a fresh cookie jar, as a new browser would have; replaces this user's previous session
+			HttpClient client = newClient();
+			String csrf = csrfToken(client, "/login");
+			HttpResponse<Void> response = timed("login", () -> client.send(post("/authenticateTheUser",
+					form("username", accountName(index), "password", PASSWORD, "_csrf", csrf)),
+					HttpResponse.BodyHandlers.discarding()),
+					r -> r.statusCode() == 302 && !r.headers().firstValue("Location").orElse("").contains("error"));
+			if (response.statusCode() == 302) {
+				session = client;
+			}
+		}
+
+		private void register() throws Exception {
+			HttpClient client = newClient();
+			String csrf = csrfToken(client, "/register/showRegistrationForm");
+			String userName = "lt" + runId + "-" + index + "-" + registrations++;
+			timed("register", () -> client.send(post("/register/processRegistrationForm",
+					form("userName", userName, "password", PASSWORD, "firstName", "Load", "lastName", "Test",
+							"email", userName + "@example.com", "_csrf", csrf)),
+					HttpResponse.BodyHandlers.ofString()),
+					r -> r.statusCode() == 200 && !r.body().contains("registrationError"));
+		}
+
+		private void page(String name, String path, int requiredLevel) throws Exception {
+			int expected = roleLevel >= requiredLevel ? 200 : 403;
+			timed(name, () -> session.send(HttpRequest.newBuilder(uri(path)).GET().build(),
+					HttpResponse.BodyHandlers.discarding()), r -> r.statusCode() == expected);
+		}
+
+		private <T> HttpResponse<T> timed(String endpointName, Exchange<T> exchange,
+				Predicate<HttpResponse<T>> success) throws Exception {
+			Endpoint endpoint = endpoints.get(endpointName);
+			long start = System.nanoTime();
+			HttpResponse<T> response = exchange.send();
+			long elapsed = System.nanoTime() - start;
+			if (start >= measureFrom) {
+				endpoint.latencies.recordValue(elapsed);
+				if (!success.test(response)) {
+					endpoint.errors.incrementAndGet();
+				}
+			}
+			return response;
+		}
+
+		private String csrfToken(HttpClient client, String path) throws Exception {
+			String body = client.send(HttpRequest.newBuilder(uri(path)).GET().build(),
+					HttpResponse.BodyHandlers.ofString()).body();
+			Matcher matcher = CSRF_TOKEN.matcher(body);
+			if (!matcher.find()) {
+				throw new IllegalStateException("No CSRF token on " + path);
+			}
+			return matcher.group(1);
+		}
+
+		private HttpClient newClient() {
+			return HttpClient.newBuilder()
+					.cookieHandler(new CookieManager())
+					.followRedirects(HttpClient.Redirect.NEVER)
+					.connectTimeout(Duration.ofSeconds(5))
+					.build();
+		}
+
+		private HttpRequest post(String path, String form) {
+			return HttpRequest.newBuilder(uri(path))
+					.header("Content-Type", "application/x-www-form-urlencoded")
+					.POST(HttpRequest.BodyPublishers.ofString(form))
+					.build();
+		}
+
+		private URI uri(String path) {
+			return URI.create("http://localhost:" + port + contextPath + path);
+		}
+	}
+
+	private static String form(String... namesAndValues) {
+		StringJoiner form = new StringJoiner("&");
+		for (int i = 0; i < namesAndValues.length; i += 2) {
+			form.add(URLEncoder.encode(namesAndValues[i], StandardCharsets.UTF_8) + "="
+					+ URLEncoder.encode(namesAndValues[i + 1], StandardCharsets.UTF_8));
+		}
+		return form.toString();
+	}
+
+	@FunctionalInterface
+	private interface Exchange<T> {
+
+		HttpResponse<T> send() throws Exception;
+	}
+}
@@ -0,0 +1,158 @@
+package com.jihan.springboot.usermanagement.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jihan.springboot.usermanagement.dto.UserRegistrationDto;
+import com.jihan.springboot.usermanagement.service.RoleRegistry;
+import com.jihan.springboot.usermanagement.service.UserService;
+
+/**
+ * API clients authenticate once for a token and are then verified from the token
+ * alone; no HTTP session is created, and forged, revoked, expired or rotated-out
+ * tokens are rejected.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ApiTokenAuthenticationTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private RoleRegistry roleRegistry;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void tokenAuthenticatesWithoutSession() throws Exception {
+		String token = issueToken("apiclient");
+
+		MvcResult result = mockMvc.perform(get("/api/users/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.username").value("apiclient"))
+				.andExpect(jsonPath("$.authorities[0]").value("ROLE_EMPLOYEE"))
+				.andReturn();
+
+		assertThat(result.getRequest().getSession(false)).isNull();
+	}
+
+	@Test
+	void wrongPasswordAndMissingOrForgedTokensAreRejected() throws Exception {
+		String token = issueToken("apiforged");
+
+		mockMvc.perform(post("/api/auth/token").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"username\":\"apiforged\",\"password\":\"wrong-password\"}"))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/api/users/me"))
+				.andExpect(status().isUnauthorized());
+
+		String forged = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+		mockMvc.perform(get("/api/users/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + forged))
+				.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void revokedTokenIsRejected() throws Exception {
+		String token = issueToken("apirevoked");
+
+		mockMvc.perform(post("/api/auth/revoke").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+				.andExpect(status().isNoContent());
+
+		mockMvc.perform(get("/api/users/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+				.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void tokensOutliveRotationOnlyWhileTheirKeyIsListed() {
+		byte[] oldKey = ApiTokenService.generateKey();
+		byte[] newKey = ApiTokenService.generateKey();
+		Clock clock = Clock.fixed(Instant.parse("2026-01-01T10:00:00Z"), ZoneOffset.UTC);
+
+		ApiTokenService beforeRotation = service("old", keys("old", oldKey), clock);
+		String token = beforeRotation.issue("rotated", List.of(new SimpleGrantedAuthority("ROLE_EMPLOYEE"))).getValue();
+
+		ApiTokenService duringRotation = service("new", keys("new", newKey, "old", oldKey), clock);
+		assertThat(duringRotation.verify(token)).isNotNull();
+		assertThat(duringRotation.issue("rotated", List.of()).getValue()).startsWith("new.");
+
+		ApiTokenService afterRotation = service("new", keys("new", newKey), clock);
+		assertThat(afterRotation.verify(token)).isNull();
+
+		ApiTokenService later = service("old", keys("old", oldKey), Clock.offset(clock, Duration.ofMinutes(16)));
+		assertThat(later.verify(token)).isNull();
+	}
+
+	@Test
+	void generatedKeyIsRefusedOutsideDevAndTest() {
+		UserManagementSecurityConfig config = new UserManagementSecurityConfig();
+		MockEnvironment prod = new MockEnvironment();
+		prod.setActiveProfiles("prod");
+		MockEnvironment dev = new MockEnvironment();
+		dev.setActiveProfiles("dev");
+
+		assertThatIllegalStateException().isThrownBy(() -> config.apiTokenService(roleRegistry,
+				new SimpleMeterRegistry(), "", "", Duration.ofMinutes(15), prod));
+		assertThat(config.apiTokenService(roleRegistry, new SimpleMeterRegistry(), "", "", Duration.ofMinutes(15), dev))
+				.isNotNull();
+	}
+
+	private ApiTokenService service(String activeKeyId, Map<String, byte[]> keys, Clock clock) {
+		return new ApiTokenService(activeKeyId, keys, Duration.ofMinutes(15), roleRegistry, new SimpleMeterRegistry(), clock);
+	}
+
+	private static Map<String, byte[]> keys(Object... idsAndKeys) {
+		Map<String, byte[]> keys = new LinkedHashMap<>();
+		for (int i = 0; i < idsAndKeys.length; i += 2) {
+			keys.put((String) idsAndKeys[i], (byte[]) idsAndKeys[i + 1]);
+		}
+		return keys;
+	}
+
+	private String issueToken(String userName) throws Exception {
+		if (!userService.existsByUsername(userName)) {
+			userService.save(new UserRegistrationDto(userName, "secret123", "Api", "Client", userName + "@example.com"));
+		}
+		MvcResult result = mockMvc.perform(post("/api/auth/token").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"username\":\"" + userName + "\",\"password\":\"secret123\"}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.tokenType").value("Bearer"))
+				.andReturn();
+
+		JsonNode body = objectMapper.readTree(result.getResponse().getContentAsString());
+		return body.get("accessToken").asText();
+	}
+}
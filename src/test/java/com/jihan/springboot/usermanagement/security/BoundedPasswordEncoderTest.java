@@ -0,0 +1,109 @@
+package com.jihan.springboot.usermanagement.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.jihan.springboot.usermanagement.exception.HashingCapacityExceededException;
+
+/**
+ * A saturated hashing pool rejects work right away, and a caller that times out
+ * drops its hash if it is still queued; a hash already running is counted as
+ * abandoned, since BCrypt cannot be interrupted.
+ */
+class BoundedPasswordEncoderTest {
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final BlockingEncoder delegate = new BlockingEncoder();
+
+	private final ExecutorService callers = Executors.newCachedThreadPool();
+
+	private BoundedPasswordEncoder encoder;
+
+	@AfterEach
+	void release() {
+		delegate.release.countDown();
+		callers.shutdownNow();
+		encoder.destroy();
+	}
+
+	@Test
+	void fullQueueIsRejected() {
+		encoder = new BoundedPasswordEncoder(delegate, 1, 1, Duration.ofSeconds(30), Duration.ofSeconds(3),
+				meterRegistry);
+		callers.submit(() -> encoder.encode("running"));
+		await().until(() -> delegate.started.get() == 1);
+		callers.submit(() -> encoder.encode("queued"));
+		await().until(() -> meterRegistry.get("security.password.hashing.queue.depth").gauge().value() == 1);
+
+		assertThatThrownBy(() -> encoder.matches("rejected", "hash"))
+				.isInstanceOfSatisfying(HashingCapacityExceededException.class,
+						e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(3));
+		assertThat(meterRegistry.get("security.password.hashing.rejected").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void timedOutHashIsDroppedWhileQueued() {
+		encoder = new BoundedPasswordEncoder(delegate, 1, 1, Duration.ofMillis(200), Duration.ofSeconds(2),
+				meterRegistry);
+		Future<String> running = callers.submit(() -> encoder.encode("running"));
+		await().until(() -> delegate.started.get() == 1);
+
+		assertThatThrownBy(() -> encoder.encode("queued")).isInstanceOf(HashingCapacityExceededException.class);
+		assertThat(meterRegistry.get("security.password.hashing.queue.depth").gauge().value()).isZero();
+
+		// the running hash timed out too, but keeps its thread until it finishes; only it is abandoned
+		await().until(running::isDone);
+		assertThat(meterRegistry.get("security.password.hashing.abandoned").counter().count()).isEqualTo(1);
+		delegate.release.countDown();
+		assertThat(encoder.encode("next")).isEqualTo("hashed:next");
+		assertThat(delegate.started.get()).isEqualTo(2);
+	}
+
+	/**
+	 * Blocks every hash until released, ignoring interrupts like BCrypt does
+	 */
+	private static class BlockingEncoder implements PasswordEncoder {
+
+		private final CountDownLatch release = new CountDownLatch(1);
+		private final AtomicInteger started = new AtomicInteger();
+
+		@Override
+		public String encode(CharSequence rawPassword) {
+			started.incrementAndGet();
+			boolean interrupted = false;
+			while (true) {
+				try {
+					release.await();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+			return "hashed:" + rawPassword;
+		}
+
+		@Override
+		public boolean matches(CharSequence rawPassword, String encodedPassword) {
+			return encode(rawPassword).equals(encodedPassword);
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package com.jihan.springboot.usermanagement.security;
+
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * With every hashing thread busy and the queue full, form logins and
+ * registrations are turned away with 503 and Retry-After instead of waiting.
+ */
+@SpringBootTest(properties = {
+		"app.security.hashing.threads=1",
+		"app.security.hashing.queue-capacity=1",
+		"app.security.hashing.retry-after=7s"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class HashingSaturationTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private BoundedPasswordEncoder passwordEncoder;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@MockitoBean
+	private BCryptPasswordEncoder bcryptPasswordEncoder;
+
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	private final ExecutorService callers = Executors.newFixedThreadPool(2);
+
+	@BeforeEach
+	void saturateHashing() {
+		doAnswer(invocation -> {
+			release.await();
+			return "{bcrypt}unused";
+		}).when(bcryptPasswordEncoder).encode(any());
+
+		// one hash on the only thread, one in the only queue slot
+		callers.submit(() -> passwordEncoder.encode("running"));
+		await().until(() -> meterRegistry.get("security.password.hashing.active").gauge().value() == 1);
+		callers.submit(() -> passwordEncoder.encode("queued"));
+		await().until(() -> meterRegistry.get("security.password.hashing.queue.depth").gauge().value() == 1);
+	}
+
+	@AfterEach
+	void releaseHashing() {
+		release.countDown();
+		callers.shutdown();
+	}
+
+	@Test
+	void formLoginIsRejectedWithRetryAfter() throws Exception {
+		mockMvc.perform(post("/authenticateTheUser").with(csrf())
+						.param("username", "busyuser")
+						.param("password", "secret123"))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(header().string(HttpHeaders.RETRY_AFTER, "7"));
+	}
+
+	@Test
+	void registrationIsRejectedWithRetryAfter() throws Exception {
+		mockMvc.perform(post("/register/processRegistrationForm").with(csrf())
+						.param("userName", "busyuser")
+						.param("password", "secret123")
+						.param("firstName", "Busy")
+						.param("lastName", "User")
+						.param("email", "busyuser@example.com"))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(header().string(HttpHeaders.RETRY_AFTER, "7"));
+	}
+}
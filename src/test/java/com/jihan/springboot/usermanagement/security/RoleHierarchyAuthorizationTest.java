@@ -0,0 +1,105 @@
+package com.jihan.springboot.usermanagement.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.jihan.springboot.usermanagement.service.RoleRegistry;
+
+/**
+ * ADMIN &gt; MANAGER &gt; EMPLOYEE is compiled into each user's role mask: a user
+ * holding only the highest role passes every lower rule, and the URL rules give
+ * the same answers with and without a precomputed mask.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RoleHierarchyAuthorizationTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private RoleRegistry roleRegistry;
+
+	@Test
+	void effectiveMaskIncludesImpliedRoles() {
+		long employee = roleRegistry.maskOf("ROLE_EMPLOYEE");
+		long manager = roleRegistry.maskOf("ROLE_MANAGER");
+		long admin = roleRegistry.maskOf("ROLE_ADMIN");
+
+		assertThat(roleRegistry.effectiveMaskOf(List.of("ROLE_ADMIN"))).isEqualTo(admin | manager | employee);
+		assertThat(roleRegistry.effectiveMaskOf(List.of("ROLE_MANAGER"))).isEqualTo(manager | employee);
+		assertThat(roleRegistry.effectiveMaskOf(List.of("ROLE_EMPLOYEE"))).isEqualTo(employee);
+		assertThat(roleRegistry.effectiveMaskOf(List.of("ROLE_UNKNOWN"))).isZero();
+	}
+
+	@Test
+	void authoritiesAreSharedPerRoleCombination() {
+		List<GrantedAuthority> first = roleRegistry.authoritiesFor(List.of("ROLE_MANAGER", "ROLE_EMPLOYEE"));
+		List<GrantedAuthority> second = roleRegistry.authoritiesFor(List.of("ROLE_EMPLOYEE", "ROLE_MANAGER"));
+
+		assertThat(second).isSameAs(first);
+		assertThat(first).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_EMPLOYEE", "ROLE_MANAGER");
+		assertThat(first.get(0)).isSameAs(roleRegistry.authorityFor("ROLE_EMPLOYEE"));
+	}
+
+	@Test
+	void reachableAuthoritiesFollowTheHierarchy() {
+		Collection<? extends GrantedAuthority> reachable = roleRegistry.getReachableGrantedAuthorities(
+				List.of(new SimpleGrantedAuthority("ROLE_ADMIN"), new SimpleGrantedAuthority("SCOPE_reports")));
+
+		assertThat(reachable).extracting(GrantedAuthority::getAuthority)
+				.containsExactlyInAnyOrder("ROLE_EMPLOYEE", "ROLE_MANAGER", "ROLE_ADMIN", "SCOPE_reports");
+	}
+
+	@Test
+	void adminWithSingleRoleReachesEveryRule() throws Exception {
+		for (Authentication admin : List.of(withMask("boss", "ROLE_ADMIN"), withoutMask("boss", "ROLE_ADMIN"))) {
+			mockMvc.perform(get("/").with(authentication(admin))).andExpect(status().isOk());
+			mockMvc.perform(get("/leaders").with(authentication(admin))).andExpect(status().isOk());
+			mockMvc.perform(get("/systems").with(authentication(admin))).andExpect(status().isOk());
+		}
+	}
+
+	@Test
+	void lowerRolesDoNotReachHigherRules() throws Exception {
+		for (Authentication manager : List.of(withMask("lead", "ROLE_MANAGER"), withoutMask("lead", "ROLE_MANAGER"))) {
+			mockMvc.perform(get("/leaders").with(authentication(manager))).andExpect(status().isOk());
+			mockMvc.perform(get("/systems").with(authentication(manager))).andExpect(status().isForbidden());
+		}
+		for (Authentication employee : List.of(withMask("staff", "ROLE_EMPLOYEE"), withoutMask("staff", "ROLE_EMPLOYEE"))) {
+			mockMvc.perform(get("/").with(authentication(employee))).andExpect(status().isOk());
+			mockMvc.perform(get("/leaders").with(authentication(employee))).andExpect(status().isForbidden());
+		}
+	}
+
+	private Authentication withMask(String userName, String roleName) {
+		List<String> roleNames = List.of(roleName);
+		RoleMaskUserDetails principal = new RoleMaskUserDetails(userName, "n/a", roleRegistry.authoritiesFor(roleNames),
+				roleRegistry.effectiveMaskOf(roleNames));
+		return UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities());
+	}
+
+	// a plain UserDetails principal, so the mask is derived from the authorities on each check
+	private static Authentication withoutMask(String userName, String roleName) {
+		User principal = new User(userName, "n/a", List.of(new SimpleGrantedAuthority(roleName)));
+		return UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities());
+	}
+}
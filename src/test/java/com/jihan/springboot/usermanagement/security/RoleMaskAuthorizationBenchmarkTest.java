@@ -0,0 +1,90 @@
+package com.jihan.springboot.usermanagement.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.access.hierarchicalroles.RoleHierarchyImpl;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.jihan.springboot.usermanagement.service.RoleRegistry;
+
+/**
+ * Per-request cost of a role rule: Spring's authority check expanding a
+ * RoleHierarchy against the single AND of the precomputed role mask. The user
+ * holds only ROLE_EMPLOYEE and ROLE_MANAGER and is checked against all three rules.
+ *
+ * Runs with mvn test -Pbenchmark.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class RoleMaskAuthorizationBenchmarkTest {
+
+	private static final int WARMUP_CHECKS = 500_000;
+	private static final int MEASURED_CHECKS = 5_000_000;
+	private static final String[] RULES = {"EMPLOYEE", "MANAGER", "ADMIN"};
+
+	@Autowired
+	private RoleRegistry roleRegistry;
+
+	@Test
+	void maskCheckAgreesWithHierarchyCheck() {
+		List<String> roleNames = List.of("ROLE_EMPLOYEE", "ROLE_MANAGER");
+		RoleMaskUserDetails principal = new RoleMaskUserDetails("bench", "n/a", roleRegistry.authoritiesFor(roleNames),
+				roleRegistry.effectiveMaskOf(roleNames));
+		Authentication maskUser = UsernamePasswordAuthenticationToken.authenticated(principal, null,
+				principal.getAuthorities());
+		Authentication plainUser = UsernamePasswordAuthenticationToken.authenticated("bench", null,
+				List.of(new SimpleGrantedAuthority("ROLE_EMPLOYEE"), new SimpleGrantedAuthority("ROLE_MANAGER")));
+
+		RoleHierarchyImpl hierarchy = RoleHierarchyImpl.fromHierarchy("ROLE_ADMIN > ROLE_MANAGER\nROLE_MANAGER > ROLE_EMPLOYEE");
+		List<AuthorizationManager<Object>> before = new ArrayList<>();
+		List<AuthorizationManager<Object>> after = new ArrayList<>();
+		for (String rule : RULES) {
+			AuthorityAuthorizationManager<Object> manager = AuthorityAuthorizationManager.hasRole(rule);
+			manager.setRoleHierarchy(hierarchy);
+			before.add(manager);
+			after.add(RoleMaskAuthorizationManager.hasRole(roleRegistry, rule));
+		}
+
+		for (int i = 0; i < RULES.length; i++) {
+			assertThat(after.get(i).check(() -> maskUser, null).isGranted())
+					.isEqualTo(before.get(i).check(() -> plainUser, null).isGranted());
+		}
+
+		run("before", before, () -> plainUser, WARMUP_CHECKS);
+		run("after", after, () -> maskUser, WARMUP_CHECKS);
+		long beforeNanos = run("before", before, () -> plainUser, MEASURED_CHECKS);
+		long afterNanos = run("after", after, () -> maskUser, MEASURED_CHECKS);
+
+		System.out.printf("role rule check: hierarchy %.1f ns/op, mask %.1f ns/op%n",
+				(double) beforeNanos / MEASURED_CHECKS, (double) afterNanos / MEASURED_CHECKS);
+	}
+
+	private static long run(String label, List<AuthorizationManager<Object>> managers,
+			Supplier<Authentication> authentication, int checks) {
+		int granted = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < checks; i++) {
+			if (managers.get(i % managers.size()).check(authentication, null).isGranted()) {
+				granted++;
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+		// keep the result observable so the loop is not optimized away
+		assertThat(granted).as(label).isPositive();
+		return elapsed;
+	}
+}
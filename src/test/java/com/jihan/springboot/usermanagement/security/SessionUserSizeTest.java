@@ -0,0 +1,225 @@
+package com.jihan.springboot.usermanagement.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.temporal.Temporal;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.jihan.springboot.usermanagement.dao.UserDao;
+import com.jihan.springboot.usermanagement.dto.UserRegistrationDto;
+import com.jihan.springboot.usermanagement.entity.User;
+import com.jihan.springboot.usermanagement.service.RoleRegistry;
+import com.jihan.springboot.usermanagement.service.UserAccountCache;
+import com.jihan.springboot.usermanagement.service.UserService;
+
+/**
+ * Per-session retained size of the session user attribute, before (the User
+ * entity, then the cached UserAccount) and after (SessionUser).
+ *
+ * Retained size is estimated by walking the object graph with a 64-bit,
+ * compressed-oops layout: 12-byte headers, 4-byte references, 8-byte alignment.
+ * JDK internals cannot be reflected on, so strings and collections are sized
+ * from their contents.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SessionUserSizeTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(SessionUserSizeTest.class);
+
+	private static final int SESSIONS = 50_000;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserDao userDao;
+
+	@Autowired
+	private UserAccountCache userAccountCache;
+
+	@Autowired
+	private RoleRegistry roleRegistry;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void sessionUserIsMuchSmallerThanTheEntityAndTheAccount() {
+		userService.save(new UserRegistrationDto("sessionsize", "secret123", "Session", "Size", "sessionsize@example.com"));
+
+		User entity = new TransactionTemplate(transactionManager)
+				.execute(status -> userDao.findByUserName("sessionsize").orElseThrow());
+		UserAccount account = userAccountCache.findByUserName("sessionsize");
+		SessionUser sessionUser = SessionUser.from(account, roleRegistry.effectiveMaskOf(account.getRoleNames()));
+
+		long entityBytes = retainedSize(entity);
+		long accountBytes = retainedSize(account);
+		long sessionUserBytes = retainedSize(sessionUser);
+
+		long accountSerialized = serializedSize(account);
+		long sessionUserSerialized = serializedSize(sessionUser);
+
+		logger.info("Retained per session: User {} B, UserAccount {} B, SessionUser {} B",
+				entityBytes, accountBytes, sessionUserBytes);
+		logger.info("For {} sessions: User {} KiB, UserAccount {} KiB, SessionUser {} KiB", SESSIONS,
+				entityBytes * SESSIONS / 1024, accountBytes * SESSIONS / 1024, sessionUserBytes * SESSIONS / 1024);
+		logger.info("Serialized: UserAccount {} B, SessionUser {} B", accountSerialized, sessionUserSerialized);
+
+		assertThat(sessionUserBytes * 3).isLessThan(entityBytes);
+		assertThat(sessionUserBytes).isLessThan(accountBytes);
+		assertThat(sessionUserSerialized).isLessThan(accountSerialized);
+	}
+
+	@Test
+	void sessionUserCarriesNoCredentials() {
+		UserAccount account = new UserAccount(7L, "carol", "$2a$10$hash", true, "Carol", "Smith",
+				"carol@example.com", List.of("ROLE_EMPLOYEE", "ROLE_MANAGER"));
+
+		SessionUser sessionUser = SessionUser.from(account, roleRegistry.effectiveMaskOf(account.getRoleNames()));
+
+		assertThat(sessionUser.getDisplayName()).isEqualTo("Carol Smith");
+		assertThat(sessionUser.hasAnyRole(roleRegistry.maskOf("ROLE_MANAGER"))).isTrue();
+		assertThat(sessionUser.hasAnyRole(roleRegistry.maskOf("ROLE_ADMIN"))).isFalse();
+		assertThat(SessionUser.class.getDeclaredFields())
+				.extracting(Field::getName)
+				.doesNotContain("password");
+	}
+
+	private static long retainedSize(Object root) {
+		Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+		Deque<Object> pending = new ArrayDeque<>();
+		pending.push(root);
+
+		long total = 0;
+		while (!pending.isEmpty()) {
+			Object object = pending.pop();
+			if (!seen.add(object)) {
+				continue;
+			}
+			total += shallowSize(object, pending);
+		}
+		return total;
+	}
+
+	private static long shallowSize(Object object, Deque<Object> pending) {
+		Class<?> type = object.getClass();
+		if (object instanceof String string) {
+			// String object plus its latin-1 byte[]
+			return align(24) + align(16 + string.length());
+		}
+		if (object instanceof Number || object instanceof Boolean || object instanceof Character) {
+			return 16;
+		}
+		if (object instanceof Temporal) {
+			// LocalDateTime holds a LocalDate and a LocalTime
+			return 24 + 24 + 24;
+		}
+		if (type.isArray()) {
+			int length = Array.getLength(object);
+			Class<?> component = type.getComponentType();
+			if (!component.isPrimitive()) {
+				for (int i = 0; i < length; i++) {
+					push(pending, Array.get(object, i));
+				}
+			}
+			return align(16 + (long) length * (component.isPrimitive() ? primitiveSize(component) : 4));
+		}
+		if (object instanceof Collection<?> collection && type.getName().startsWith("java.")) {
+			// ArrayList-like: object, backing array
+			collection.forEach(element -> push(pending, element));
+			return align(24) + align(16 + 4L * collection.size());
+		}
+		if (object instanceof Map<?, ?> map && type.getName().startsWith("java.")) {
+			// HashMap-like: object, table, one node per entry
+			map.forEach((key, value) -> {
+				push(pending, key);
+				push(pending, value);
+			});
+			return align(48) + align(16 + 4L * map.size()) + 32L * map.size();
+		}
+		if (type.isEnum() || object instanceof Class<?> || object instanceof SharedSessionContractImplementor) {
+			// shared, not retained by the session attribute
+			return 0;
+		}
+
+		long size = 12;
+		for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+			for (Field field : current.getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers())) {
+					continue;
+				}
+				if (field.getType().isPrimitive()) {
+					size += primitiveSize(field.getType());
+					continue;
+				}
+				size += 4;
+				if (field.trySetAccessible()) {
+					try {
+						push(pending, field.get(object));
+					} catch (IllegalAccessException e) {
+						throw new IllegalStateException(e);
+					}
+				}
+			}
+		}
+		return align(size);
+	}
+
+	private static void push(Deque<Object> pending, Object value) {
+		if (value != null) {
+			pending.push(value);
+		}
+	}
+
+	private static int primitiveSize(Class<?> type) {
+		if (type == long.class || type == double.class) {
+			return 8;
+		}
+		if (type == int.class || type == float.class) {
+			return 4;
+		}
+		if (type == short.class || type == char.class) {
+			return 2;
+		}
+		return 1;
+	}
+
+	private static long align(long size) {
+		return (size + 7) & ~7L;
+	}
+
+	private static int serializedSize(Object object) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(object);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return bytes.size();
+	}
+}
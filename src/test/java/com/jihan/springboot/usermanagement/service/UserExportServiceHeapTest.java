@@ -0,0 +1,102 @@
+package com.jihan.springboot.usermanagement.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * A million-user export runs end to end, from the database through
+ * UserExportService, in a heap that could not hold the exported users.
+ *
+ * Tagged bounded-heap: surefire runs it in its own execution with -Xmx512m (see
+ * pom.xml). The database is file-backed so the table lives on disk rather than
+ * in the test heap; buffering the rows or the output would not fit.
+ */
+@Tag("bounded-heap")
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:file:./target/export-heap-test/users;DB_CLOSE_ON_EXIT=FALSE",
+		"app.users.export.fetch-size=1000"
+})
+@ActiveProfiles("test")
+class UserExportServiceHeapTest {
+
+	private static final int USERS = 1_000_000;
+
+	private static final int CHUNK = 100_000;
+
+	// the schema is recreated with the context; ids above anything the sequence hands out
+	private static final long FIRST_ID = 10_000_000L;
+
+	@Autowired
+	private UserExportService userExportService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void insertUsers() {
+		// close to the column limits: about 250 bytes of text per user
+		String padding = "x".repeat(50);
+		// in chunks, so no single transaction holds a million rows
+		for (long from = FIRST_ID; from < FIRST_ID + USERS; from += CHUNK) {
+			long to = from + CHUNK - 1;
+			jdbcTemplate.update("insert into users (id, username, username_normalized, password, enabled, "
+					+ "first_name, last_name, email, email_normalized, created_at) "
+					+ "select x, 'heap' || x, 'heap' || x, '{noop}unused', true, "
+					+ "'First' || ? || x, 'Last' || ? || x, 'heap' || x || '@example.com', "
+					+ "'heap' || x || '@example.com', current_timestamp "
+					+ "from system_range(?, ?)", padding, padding, from, to);
+			for (String role : new String[] {"ROLE_EMPLOYEE", "ROLE_MANAGER"}) {
+				jdbcTemplate.update("insert into users_roles (user_id, role_id) "
+						+ "select x, (select id from roles where name = ?) from system_range(?, ?)", role, from, to);
+			}
+		}
+	}
+
+	@Test
+	void millionRowExportRunsInBoundedHeap() throws IOException {
+		CountingOutputStream out = new CountingOutputStream();
+
+		long written = userExportService.export(ExportFormat.NDJSON, false, out);
+
+		assertThat(written).isGreaterThanOrEqualTo(USERS);
+		assertThat(out.lines).isEqualTo(written);
+		assertThat(out.bytes).isGreaterThan(USERS * 250L);
+	}
+
+	/**
+	 * Discards output, keeping only byte and line counts
+	 */
+	private static class CountingOutputStream extends OutputStream {
+
+		private long bytes;
+		private long lines;
+
+		@Override
+		public void write(int b) {
+			bytes++;
+			if (b == '\n') {
+				lines++;
+			}
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			bytes += len;
+			for (int i = off; i < off + len; i++) {
+				if (b[i] == '\n') {
+					lines++;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package com.jihan.springboot.usermanagement.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Export rows are folded per user and escaped per format. The bounded-heap
+ * export is covered end to end by UserExportServiceHeapTest.
+ */
+class UserExportWriterTest {
+
+	@Test
+	void csvFoldsRolesAndEscapesFields() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (UserExportWriter writer = new UserExportWriter(ExportFormat.CSV, out)) {
+			writer.accept(1, "alice", "Alice", "Smith, Jr.", "alice@example.com", true, "ROLE_ADMIN");
+			writer.accept(1, "alice", "Alice", "Smith, Jr.", "alice@example.com", true, "ROLE_EMPLOYEE");
+			writer.accept(2, "bob", "Bob \"B\"", "Jones", "bob@example.com", false, null);
+		}
+
+		assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+				"id,username,first_name,last_name,email,enabled,roles\r\n"
+				+ "1,alice,Alice,\"Smith, Jr.\",alice@example.com,true,ROLE_ADMIN;ROLE_EMPLOYEE\r\n"
+				+ "2,bob,\"Bob \"\"B\"\"\",Jones,bob@example.com,false,\r\n");
+	}
+
+	@Test
+	void ndjsonWritesOneObjectPerLine() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (UserExportWriter writer = new UserExportWriter(ExportFormat.NDJSON, out)) {
+			writer.accept(1, "alice", "Alice", "Smith", "alice@example.com", true, "ROLE_ADMIN");
+			writer.accept(1, "alice", "Alice", "Smith", "alice@example.com", true, "ROLE_EMPLOYEE");
+			writer.accept(2, "bob", "Bob", "Jones", "bob@example.com", false, null);
+		}
+
+		assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+				"{\"id\":1,\"username\":\"alice\",\"firstName\":\"Alice\",\"lastName\":\"Smith\","
+				+ "\"email\":\"alice@example.com\",\"enabled\":true,\"roles\":[\"ROLE_ADMIN\",\"ROLE_EMPLOYEE\"]}\n"
+				+ "{\"id\":2,\"username\":\"bob\",\"firstName\":\"Bob\",\"lastName\":\"Jones\","
+				+ "\"email\":\"bob@example.com\",\"enabled\":false,\"roles\":[]}\n");
+	}
+}
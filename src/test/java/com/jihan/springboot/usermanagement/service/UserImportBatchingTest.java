@@ -0,0 +1,155 @@
+package com.jihan.springboot.usermanagement.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import com.jihan.springboot.usermanagement.dto.ImportReport;
+import com.jihan.springboot.usermanagement.dto.UserRegistrationDto;
+import com.jihan.springboot.usermanagement.event.UserChangedEvent;
+import com.jihan.springboot.usermanagement.event.UsersChangedEvent;
+
+/**
+ * A bulk import sends its inserts as JDBC batches, never row by row, and
+ * publishes one change event per chunk.
+ */
+@SpringBootTest(properties = {
+		"app.users.import.chunk-size=100",
+		"spring.jpa.properties.hibernate.jdbc.batch_size=20"
+})
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class UserImportBatchingTest {
+
+	private static final int USERS = 60;
+
+	private static final StatementCounter counter = new StatementCounter();
+
+	@Autowired
+	private UserImportService userImportService;
+
+	@Autowired
+	private ApplicationEvents events;
+
+	@Test
+	void insertsAreSentAsBatches() {
+		List<UserRegistrationDto> rows = IntStream.range(0, USERS)
+				.mapToObj(i -> new UserRegistrationDto("batch" + i, "secret123", "Batch", "User" + i,
+						"batch" + i + "@example.com"))
+				.toList();
+
+		counter.reset();
+		ImportReport report = userImportService.importUsers(rows);
+
+		assertThat(report.getImported()).isEqualTo(USERS);
+		// 60 rows in batches of 20, and no insert executed on its own
+		assertThat(counter.count("executeBatch", "users")).isEqualTo(3);
+		assertThat(counter.count("executeBatch", "users_roles")).isEqualTo(3);
+		assertThat(counter.count("executeUpdate", "users")).isZero();
+		assertThat(counter.count("executeUpdate", "users_roles")).isZero();
+
+		assertThat(events.stream(UserChangedEvent.class)).isEmpty();
+		assertThat(events.stream(UsersChangedEvent.class))
+				.singleElement()
+				.satisfies(event -> assertThat(event.getUserNames()).hasSize(USERS).contains("batch0", "batch59"));
+	}
+
+	@TestConfiguration
+	static class CountingDataSourceConfig {
+
+		@Bean
+		static BeanPostProcessor countingDataSource() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					return bean instanceof DataSource dataSource && "dataSource".equals(beanName)
+							? counter.wrap(dataSource)
+							: bean;
+				}
+			};
+		}
+	}
+
+	/**
+	 * Counts executions of insert statements per JDBC method and table
+	 */
+	static class StatementCounter {
+
+		private final Map<String, AtomicInteger> executions = new ConcurrentHashMap<>();
+
+		void reset() {
+			executions.clear();
+		}
+
+		int count(String method, String table) {
+			AtomicInteger count = executions.get(method + " " + table);
+			return count == null ? 0 : count.get();
+		}
+
+		DataSource wrap(DataSource dataSource) {
+			return new DelegatingDataSource(dataSource) {
+				@Override
+				public Connection getConnection() throws SQLException {
+					return proxy(Connection.class, super.getConnection(), (method, result, args) ->
+							"prepareStatement".equals(method.getName()) && result instanceof PreparedStatement statement
+									? statement(statement, (String) args[0])
+									: result);
+				}
+			};
+		}
+
+		private PreparedStatement statement(PreparedStatement statement, String sql) {
+			String text = sql.trim().toLowerCase(Locale.ROOT);
+			if (!text.startsWith("insert into ")) {
+				return statement;
+			}
+			String table = text.substring("insert into ".length()).split("[\\s(]", 2)[0];
+			return proxy(PreparedStatement.class, statement, (method, result, args) -> {
+				if (method.getName().startsWith("execute")) {
+					executions.computeIfAbsent(method.getName() + " " + table, k -> new AtomicInteger())
+							.incrementAndGet();
+				}
+				return result;
+			});
+		}
+
+		private static <T> T proxy(Class<T> type, T target, ResultMapper mapper) {
+			return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (p, method, args) -> {
+				try {
+					return mapper.map(method, method.invoke(target, args), args);
+				} catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+			}));
+		}
+
+		@FunctionalInterface
+		private interface ResultMapper {
+			Object map(Method method, Object result, Object[] args);
+		}
+	}
+}
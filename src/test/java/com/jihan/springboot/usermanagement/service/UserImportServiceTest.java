@@ -0,0 +1,60 @@
+package com.jihan.springboot.usermanagement.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.jihan.springboot.usermanagement.dto.ImportReport;
+import com.jihan.springboot.usermanagement.dto.UserRegistrationDto;
+
+/**
+ * Bulk import inserts the valid rows and reports every rejected row with its
+ * position in the file.
+ */
+@SpringBootTest(properties = "app.users.import.chunk-size=2")
+@ActiveProfiles("test")
+class UserImportServiceTest {
+
+	@Autowired
+	private UserImportService userImportService;
+
+	@Autowired
+	private UserService userService;
+
+	@Test
+	void importsValidRowsAndReportsTheRest() throws IOException {
+		userService.save(new UserRegistrationDto("import0", "secret123", "Already", "There", "import0@example.com"));
+
+		String csv = "username,first_name,last_name,email,password\n"
+				+ "import1,Imported,One,import1@example.com,secret123\n"
+				+ "import0,Taken,Name,other0@example.com,secret123\n"
+				+ "import2,\"Two, Jr.\",Imported,import2@example.com,secret123\n"
+				+ "import1,Repeated,Name,repeat@example.com,secret123\n"
+				+ "import3,Bad,Email,not-an-email,secret123\n"
+				+ "import4,Imported,Four,import4@example.com,secret123\n";
+		List<UserRegistrationDto> rows = UserImportParser.parse("users.csv",
+				new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+		ImportReport report = userImportService.importUsers(rows);
+
+		assertThat(report.getTotalRows()).isEqualTo(6);
+		assertThat(report.getImported()).isEqualTo(3);
+		assertThat(report.getErrors())
+				.extracting(ImportReport.RowError::getRow, ImportReport.RowError::getMessage)
+				.containsExactly(
+						tuple(2, "Username already exists"),
+						tuple(4, "Duplicate username in file"),
+						tuple(5, "Please provide a valid email address"));
+		assertThat(userService.existsByUsername("import2")).isTrue();
+		assertThat(userService.findUsersPage("import1", 1).getContent().get(0).getFirstName()).isEqualTo("Two, Jr.");
+	}
+}
@@ -0,0 +1,139 @@
+package com.jihan.springboot.usermanagement.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.jihan.springboot.usermanagement.dao.UserQueryDao;
+import com.jihan.springboot.usermanagement.dto.UserDto;
+import com.jihan.springboot.usermanagement.dto.UserPage;
+
+/**
+ * Type-ahead latency over a million users: every query of a realistic mix
+ * (name and email fragments, usernames, short prefixes, misses) must return a
+ * page in under a millisecond at the 99th percentile.
+ *
+ * The users are generated in memory, so no database is involved. Runs with
+ * mvn test -Pbenchmark.
+ */
+@Tag("benchmark")
+class UserSearchIndexBenchmarkTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(UserSearchIndexBenchmarkTest.class);
+
+	private static final int USERS = 1_000_000;
+	private static final int PAGE_SIZE = 20;
+	// enough calls for the search path to be JIT-compiled before measuring
+	private static final int WARMUP_ROUNDS = 1000;
+	private static final int MEASURED_ROUNDS = 200;
+	private static final long P99_LIMIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private static final String[] FIRST_NAMES = {"Ada", "Alan", "Grace", "Linus", "Margaret", "Dennis", "Barbara",
+			"Ken", "Frances", "Donald", "Edsger", "Radia", "Tim", "Katherine", "John", "Annie", "Niklaus", "Shafi"};
+	private static final String[] LAST_NAMES = {"Lovelace", "Turing", "Hopper", "Torvalds", "Hamilton", "Ritchie",
+			"Liskov", "Thompson", "Allen", "Knuth", "Dijkstra", "Perlman", "Berners-Lee", "Johnson", "McCarthy",
+			"Easley", "Wirth", "Goldwasser"};
+	private static final String[] DOMAINS = {"example.com", "corp.example", "mail.example.org", "research.example"};
+
+	private static final String[] QUERIES = {"ada", "lovelace", "grace hop", "knuth", "berners", "ham", "dijk",
+			"user4242", "user999999", "user12345", "corp.example", "research", "al", "to", "k", "mcc",
+			"nobody-matches-this", "zzq", "tur", "perlman@"};
+
+	@Test
+	void searchTakesUnderAMillisecondAtAMillionUsers() {
+		UserSearchIndex index = new UserSearchIndex(new GeneratedUsers(), mock(PlatformTransactionManager.class),
+				new SimpleMeterRegistry(), 1000, false);
+		index.rebuild();
+
+		for (int round = 0; round < WARMUP_ROUNDS; round++) {
+			measure(index);
+		}
+		long[] nanos = new long[MEASURED_ROUNDS * QUERIES.length];
+		for (int round = 0; round < MEASURED_ROUNDS; round++) {
+			System.arraycopy(measure(index), 0, nanos, round * QUERIES.length, QUERIES.length);
+		}
+		Arrays.sort(nanos);
+
+		long p50 = nanos[nanos.length / 2];
+		long p99 = nanos[(int) Math.ceil(nanos.length * 0.99) - 1];
+		logger.info("Search over {} users: p50 {} us, p99 {} us, max {} us", USERS, p50 / 1000, p99 / 1000,
+				nanos[nanos.length - 1] / 1000);
+
+		assertThat(index.search("user999999", null, PAGE_SIZE).getContent())
+				.extracting(UserDto::getUsername)
+				.containsExactly("user999999");
+		assertThat(index.search("lovelace", null, PAGE_SIZE).getContent()).hasSize(PAGE_SIZE);
+		assertThat(p99).isLessThan(P99_LIMIT_NANOS);
+	}
+
+	private static long[] measure(UserSearchIndex index) {
+		long[] nanos = new long[QUERIES.length];
+		for (int i = 0; i < QUERIES.length; i++) {
+			long start = System.nanoTime();
+			UserPage page = index.search(QUERIES[i], null, PAGE_SIZE);
+			nanos[i] = System.nanoTime() - start;
+			assertThat(page.getContent()).hasSizeLessThanOrEqualTo(PAGE_SIZE);
+		}
+		return nanos;
+	}
+
+	/**
+	 * Serves a million generated users to the index rebuild
+	 */
+	private static class GeneratedUsers implements UserQueryDao {
+
+		@Override
+		public void scanAll(int fetchSize, Consumer<UserDto> consumer) {
+			Set<String> roles = Set.of("ROLE_EMPLOYEE");
+			for (int i = 1; i <= USERS; i++) {
+				String firstName = FIRST_NAMES[i % FIRST_NAMES.length];
+				String lastName = LAST_NAMES[(i / FIRST_NAMES.length) % LAST_NAMES.length];
+				String email = firstName.toLowerCase() + "." + lastName.toLowerCase() + i + "@"
+						+ DOMAINS[i % DOMAINS.length];
+				consumer.accept(new UserDto((long) i, "user" + i, firstName, lastName, email, true,
+						new LinkedHashSet<>(roles)));
+			}
+		}
+
+		@Override
+		public List<UserDto> findAll() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public UserDto findById(Long id) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public List<UserDto> findByIds(Collection<Long> ids) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public List<UserDto> findPage(String afterUserName, int limit) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Stream<UserDto> streamAll(int fetchSize) {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,175 @@
+package com.jihan.springboot.usermanagement.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.jihan.springboot.usermanagement.dao.UserQueryDao;
+import com.jihan.springboot.usermanagement.dto.UserDto;
+import com.jihan.springboot.usermanagement.dto.UserPage;
+import com.jihan.springboot.usermanagement.event.UsersChangedEvent;
+
+/**
+ * Paging through search results while users change: every user is returned
+ * once, and a cursor that outlived a compaction is rejected rather than
+ * silently pointing at renumbered documents.
+ */
+class UserSearchIndexCursorTest {
+
+	private static final int PAGE_SIZE = 20;
+
+	private final Map<Long, UserDto> users = new TreeMap<>();
+
+	private UserSearchIndex index;
+
+	@BeforeEach
+	void buildIndex() {
+		index = new UserSearchIndex(new InMemoryUsers(), mock(PlatformTransactionManager.class),
+				new SimpleMeterRegistry(), 1000, false);
+	}
+
+	@Test
+	void pagesOverChangingUsersWithoutRepeatsOrGaps() {
+		addUsers(1, 300);
+		index.rebuild();
+
+		List<String> seen = new ArrayList<>();
+		UserPage page = index.search("pager", null, PAGE_SIZE);
+		seen.addAll(usernames(page));
+		long nextId = 301;
+		for (int round = 0; !page.isLast(); round++) {
+			// rename a user already returned, one still ahead, one near the end, and register one
+			List<Long> changed = new ArrayList<>(List.of(1L + round, 150L + round, 290L - round));
+			changed.forEach(id -> rename(id, "Renamed" + id));
+			addUsers(nextId, 1);
+			changed.add(nextId++);
+			change(changed);
+
+			page = index.search("pager", page.getNextCursor(), PAGE_SIZE);
+			seen.addAll(usernames(page));
+		}
+
+		assertThat(seen).doesNotHaveDuplicates();
+		assertThat(seen).containsAll(users.values().stream()
+				.filter(user -> user.getId() <= 300)
+				.map(UserDto::getUsername)
+				.toList());
+	}
+
+	@Test
+	void rejectsCursorAfterCompaction() {
+		addUsers(1, 2000);
+		index.rebuild();
+		UserPage first = index.search("pager", null, PAGE_SIZE);
+
+		// enough replaced documents to trigger a compaction, which renumbers them all
+		List<Long> changed = new ArrayList<>();
+		for (long id = 1; id <= 1100; id++) {
+			rename(id, "Compacted" + id);
+			changed.add(id);
+		}
+		change(changed);
+
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> index.search("pager", first.getNextCursor(), PAGE_SIZE));
+
+		List<String> seen = new ArrayList<>();
+		UserPage page = null;
+		do {
+			page = index.search("pager", page == null ? null : page.getNextCursor(), PAGE_SIZE);
+			seen.addAll(usernames(page));
+		} while (!page.isLast());
+		assertThat(seen).hasSize(2000).doesNotHaveDuplicates();
+	}
+
+	@Test
+	void rejectsMalformedCursor() {
+		addUsers(1, 10);
+		index.rebuild();
+
+		assertThatIllegalArgumentException().isThrownBy(() -> index.search("pager", "42", PAGE_SIZE));
+	}
+
+	/**
+	 * Report changed users and wait until the reload thread has applied them
+	 */
+	private void change(List<Long> userIds) {
+		index.onUsersChanged(new UsersChangedEvent(userIds, List.of()));
+		await().until(() -> userIds.stream().allMatch(this::indexed));
+	}
+
+	private boolean indexed(Long id) {
+		UserDto user = users.get(id);
+		return index.search(user.getEmail(), null, PAGE_SIZE).getContent().stream()
+				.anyMatch(found -> found.getId().equals(id) && found.getFirstName().equals(user.getFirstName()));
+	}
+
+	private void addUsers(long firstId, int count) {
+		for (long id = firstId; id < firstId + count; id++) {
+			users.put(id, new UserDto(id, "pager" + id, "Page", "User" + id, "pager" + id + "@example.com", true,
+					Set.of("ROLE_EMPLOYEE")));
+		}
+	}
+
+	private void rename(long id, String firstName) {
+		UserDto user = users.get(id);
+		users.put(id, new UserDto(id, user.getUsername(), firstName, user.getLastName(), user.getEmail(), true,
+				user.getRoles()));
+	}
+
+	private static List<String> usernames(UserPage page) {
+		return page.getContent().stream().map(UserDto::getUsername).toList();
+	}
+
+	/**
+	 * Serves the users of the test to the index
+	 */
+	private class InMemoryUsers implements UserQueryDao {
+
+		@Override
+		public void scanAll(int fetchSize, Consumer<UserDto> consumer) {
+			users.values().forEach(consumer);
+		}
+
+		@Override
+		public List<UserDto> findByIds(Collection<Long> ids) {
+			return ids.stream().map(users::get).filter(user -> user != null).toList();
+		}
+
+		@Override
+		public List<UserDto> findAll() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public UserDto findById(Long id) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public List<UserDto> findPage(String afterUserName, int limit) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Stream<UserDto> streamAll(int fetchSize) {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package com.jihan.springboot.usermanagement.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.jihan.springboot.usermanagement.dao.UserDao;
+import com.jihan.springboot.usermanagement.dao.UserQueryDao;
+import com.jihan.springboot.usermanagement.dto.UserDto;
+import com.jihan.springboot.usermanagement.dto.UserPage;
+import com.jihan.springboot.usermanagement.dto.UserRegistrationDto;
+import com.jihan.springboot.usermanagement.entity.User;
+
+/**
+ * The search index picks up registrations and updates once committed, re-reading
+ * the users of one transaction together on its own thread, and matches
+ * substrings of username, full name and email regardless of case.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class UserSearchIndexTest {
+
+	@Autowired
+	private UserSearchIndex userSearchIndex;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserDao userDao;
+
+	@MockitoSpyBean
+	private UserQueryDao userQueryDao;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@BeforeEach
+	void registerUsers() {
+		register("searchada", "Ada", "Lovelace", "ada.lovelace@analytical.example");
+		register("searchalan", "Alan", "Turing", "alan.turing@bletchley.example");
+		register("searchgrace", "Grace", "Hopper", "grace.hopper@cobol.example");
+		await().untilAsserted(() -> assertThat(usernames(userSearchIndex.search("search", null, 10)))
+				.contains("searchada", "searchalan", "searchgrace"));
+	}
+
+	@Test
+	void matchesSubstringsOfAnyFieldIgnoringCase() {
+		assertThat(usernames(userSearchIndex.search("LOVEL", null, 10))).containsExactly("searchada");
+		assertThat(usernames(userSearchIndex.search("bletchley", null, 10))).containsExactly("searchalan");
+		assertThat(usernames(userSearchIndex.search("grace hop", null, 10))).containsExactly("searchgrace");
+		assertThat(usernames(userSearchIndex.search("ho", null, 10))).contains("searchgrace");
+		assertThat(userSearchIndex.search("nobody-like-this", null, 10).getContent()).isEmpty();
+	}
+
+	@Test
+	void pagesThroughMatches() {
+		UserPage first = userSearchIndex.search("search", null, 2);
+		assertThat(first.getContent()).hasSize(2);
+		assertThat(first.isLast()).isFalse();
+
+		UserPage second = userSearchIndex.search("search", first.getNextCursor(), 2);
+		assertThat(usernames(second)).doesNotContainAnyElementsOf(usernames(first));
+	}
+
+	@Test
+	void reloadsTheUsersOfOneTransactionTogether() {
+		clearInvocations(userQueryDao);
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			for (String userName : List.of("searchada", "searchalan")) {
+				User user = userDao.findByUserName(userName).orElseThrow();
+				user.setFirstName(user.getFirstName() + "-Renamed");
+				userDao.save(user);
+			}
+		});
+
+		verify(userQueryDao, timeout(5000).times(1)).findByIds(argThat(ids -> ids.size() == 2));
+		await().untilAsserted(() -> assertThat(usernames(userSearchIndex.search("renamed", null, 10)))
+				.containsExactlyInAnyOrder("searchada", "searchalan"));
+	}
+
+	@Test
+	void commitDoesNotWaitForTheReload() {
+		CountDownLatch release = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			release.await();
+			return invocation.callRealMethod();
+		}).when(userQueryDao).findByIds(any());
+
+		// with the reload stuck, the commit still returns
+		assertTimeoutPreemptively(Duration.ofSeconds(5), () -> rename("searchalan", "Alan-Stalled"));
+		release.countDown();
+
+		await().untilAsserted(() -> assertThat(usernames(userSearchIndex.search("stalled", null, 10)))
+				.containsExactly("searchalan"));
+	}
+
+	@Test
+	void reflectsCommittedUpdates() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			User user = userDao.findByUserName("searchgrace").orElseThrow();
+			user.setLastName("Hopper-Murray");
+			userDao.save(user);
+		});
+
+		await().untilAsserted(() -> assertThat(userSearchIndex.search("murray", null, 10).getContent())
+				.extracting(UserDto::getUsername)
+				.containsExactly("searchgrace"));
+		assertThat(userSearchIndex.search("grace hopper-m", null, 10).getContent()).hasSize(1);
+	}
+
+	private void rename(String userName, String firstName) {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			User user = userDao.findByUserName(userName).orElseThrow();
+			user.setFirstName(firstName);
+			userDao.save(user);
+		});
+	}
+
+	private void register(String userName, String firstName, String lastName, String email) {
+		if (!userService.existsByUsername(userName)) {
+			userService.save(new UserRegistrationDto(userName, "secret123", firstName, lastName, email));
+		}
+	}
+
+	private static List<String> usernames(UserPage page) {
+		return page.getContent().stream().map(UserDto::getUsername).toList();
+	}
+}
@@ -0,0 +1,85 @@
+package com.jihan.springboot.usermanagement.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.jihan.springboot.usermanagement.dto.UserDto;
+import com.jihan.springboot.usermanagement.dto.UserPage;
+import com.jihan.springboot.usermanagement.dto.UserRegistrationDto;
+
+/**
+ * Keyset pages walk the user listing in username order without gaps or
+ * repeats, and the streaming variant only runs inside a transaction and
+ * carries the same role names as the other listings.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class UserServiceImplPagingTest {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@BeforeEach
+	void registerUsers() {
+		for (int i = 0; i < 5; i++) {
+			String userName = "page" + i;
+			if (!userService.existsByUsername(userName)) {
+				userService.save(new UserRegistrationDto(userName, "secret123", "Page", "User" + i, userName + "@example.com"));
+			}
+		}
+	}
+
+	@Test
+	void pagesCoverEveryUserExactlyOnce() {
+		List<String> expected = userService.findAllUsers().stream()
+				.map(UserDto::getUsername)
+				.collect(Collectors.toList());
+
+		List<String> paged = new ArrayList<>();
+		String cursor = null;
+		UserPage page;
+		do {
+			page = userService.findUsersPage(cursor, 2);
+			assertThat(page.getContent()).hasSizeLessThanOrEqualTo(2);
+			page.getContent().forEach(user -> paged.add(user.getUsername()));
+			cursor = page.getNextCursor();
+		} while (!page.isLast());
+
+		assertThat(paged).containsExactlyElementsOf(expected);
+	}
+
+	@Test
+	void streamRequiresATransaction() {
+		assertThatThrownBy(() -> userService.streamAllUsers())
+				.isInstanceOf(IllegalTransactionStateException.class);
+
+		TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+		List<UserDto> streamed = readOnly.execute(status -> {
+			try (Stream<UserDto> users = userService.streamAllUsers()) {
+				return users.collect(Collectors.toList());
+			}
+		});
+
+		assertThat(streamed).extracting(UserDto::getUsername).contains("page0", "page4").isSorted();
+		assertThat(streamed).filteredOn(user -> user.getUsername().startsWith("page"))
+				.allSatisfy(user -> assertThat(user.getRoles()).containsExactly("ROLE_EMPLOYEE"));
+	}
+}
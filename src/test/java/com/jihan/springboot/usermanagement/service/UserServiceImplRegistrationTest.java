@@ -0,0 +1,98 @@
+package com.jihan.springboot.usermanagement.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.jihan.springboot.usermanagement.dto.UserRegistrationDto;
+import com.jihan.springboot.usermanagement.exception.UserAlreadyExistsException;
+
+/**
+ * Duplicate registrations are rejected, before any password hashing, and reported
+ * as {@link UserAlreadyExistsException} for the offending column.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class UserServiceImplRegistrationTest {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void duplicateUsernameIsReported() {
+		userService.save(new UserRegistrationDto("dupname", "secret123", "Dup", "Name", "dupname@example.com"));
+
+		assertThatThrownBy(() -> userService.save(
+				new UserRegistrationDto("dupname", "secret123", "Dup", "Name", "other@example.com")))
+				.isInstanceOf(UserAlreadyExistsException.class)
+				.hasMessageContaining("username");
+	}
+
+	@Test
+	void duplicateEmailIsReported() {
+		userService.save(new UserRegistrationDto("dupmail1", "secret123", "Dup", "Mail", "dupmail@example.com"));
+
+		assertThatThrownBy(() -> userService.save(
+				new UserRegistrationDto("dupmail2", "secret123", "Dup", "Mail", "dupmail@example.com")))
+				.isInstanceOf(UserAlreadyExistsException.class)
+				.hasMessageContaining("email");
+	}
+
+	@Test
+	void duplicatesAreRejectedBeforeHashing() {
+		userService.save(new UserRegistrationDto("nohash", "secret123", "No", "Hash", "nohash@example.com"));
+		Timer encodeTimer = meterRegistry.get("security.password.hashing").tag("operation", "encode").timer();
+		long encodes = encodeTimer.count();
+
+		assertThatThrownBy(() -> userService.save(
+				new UserRegistrationDto("nohash", "secret123", "No", "Hash", "nohash2@example.com")))
+				.isInstanceOf(UserAlreadyExistsException.class);
+		assertThatThrownBy(() -> userService.save(
+				new UserRegistrationDto("nohash2", "secret123", "No", "Hash", "nohash@example.com")))
+				.isInstanceOf(UserAlreadyExistsException.class);
+
+		assertThat(encodeTimer.count()).isEqualTo(encodes);
+	}
+
+	@Test
+	void existenceChecksDoNotRequireLoadingTheUser() {
+		userService.save(new UserRegistrationDto("exists1", "secret123", "Ex", "Ists", "exists1@example.com"));
+
+		assertThat(userService.existsByUsername("exists1")).isTrue();
+		assertThat(userService.existsByEmail("exists1@example.com")).isTrue();
+		assertThat(userService.existsByUsername("missing")).isFalse();
+	}
+
+	@Test
+	void usernamesAndEmailsDifferingOnlyInCaseAreDuplicates() {
+		userService.save(new UserRegistrationDto("CaseUser", "secret123", "Case", "User", "Case.User@Example.com"));
+
+		assertThatThrownBy(() -> userService.save(
+				new UserRegistrationDto("caseuser", "secret123", "Case", "User", "other.case@example.com")))
+				.isInstanceOf(UserAlreadyExistsException.class)
+				.hasMessageContaining("username");
+		assertThatThrownBy(() -> userService.save(
+				new UserRegistrationDto("caseuser2", "secret123", "Case", "User", "case.user@example.com")))
+				.isInstanceOf(UserAlreadyExistsException.class)
+				.hasMessageContaining("email");
+	}
+
+	@Test
+	void lookupsIgnoreCase() {
+		userService.save(new UserRegistrationDto("MixedCase", "secret123", "Mixed", "Case", "Mixed.Case@Example.com"));
+
+		assertThat(userService.existsByUsername("MIXEDCASE")).isTrue();
+		assertThat(userService.existsByEmail("mixed.case@example.com")).isTrue();
+		assertThat(userService.loadUserByUsername("mixedcase").getUsername()).isEqualTo("MixedCase");
+	}
+}
@@ -0,0 +1,95 @@
+package com.jihan.springboot.usermanagement.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.jihan.springboot.usermanagement.dto.UserRegistrationDto;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Verifies that registration hashes the password before any pooled connection
+ * is checked out, so connection hold time no longer includes the bcrypt cost.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(UserServiceImplTransactionTest.ProbeConfiguration.class)
+class UserServiceImplTransactionTest {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private BCryptPasswordEncoder bcryptPasswordEncoder;
+
+	@Test
+	void passwordIsHashedWithoutHoldingAConnection() throws Exception {
+		ProbingPasswordEncoder probe = (ProbingPasswordEncoder) bcryptPasswordEncoder;
+		probe.watch(dataSource.unwrap(HikariDataSource.class));
+
+		userService.save(new UserRegistrationDto("hashprobe", "secret123", "Hash", "Probe", "hash.probe@example.com"));
+
+		assertThat(probe.encodeCalls.get()).isEqualTo(1);
+		assertThat(probe.maxActiveConnections.get()).isZero();
+		assertThat(userService.existsByUsername("hashprobe")).isTrue();
+	}
+
+	@TestConfiguration
+	static class ProbeConfiguration {
+
+		@Bean
+		static BeanPostProcessor probingPasswordEncoderPostProcessor() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					return "bcryptPasswordEncoder".equals(beanName) ? new ProbingPasswordEncoder() : bean;
+				}
+			};
+		}
+	}
+
+	/**
+	 * BCrypt encoder that samples the number of checked-out pool connections
+	 * while it is hashing.
+	 */
+	static class ProbingPasswordEncoder extends BCryptPasswordEncoder {
+
+		private final AtomicInteger encodeCalls = new AtomicInteger();
+		private final AtomicInteger maxActiveConnections = new AtomicInteger();
+		private volatile HikariDataSource pool;
+
+		ProbingPasswordEncoder() {
+			super(4);
+		}
+
+		void watch(HikariDataSource pool) {
+			this.pool = pool;
+			encodeCalls.set(0);
+			maxActiveConnections.set(0);
+		}
+
+		@Override
+		public String encode(CharSequence rawPassword) {
+			encodeCalls.incrementAndGet();
+			if (pool != null) {
+				maxActiveConnections.accumulateAndGet(pool.getHikariPoolMXBean().getActiveConnections(), Math::max);
+			}
+			return super.encode(rawPassword);
+		}
+	}
+}
@@ -0,0 +1,137 @@
+package com.jihan.springboot.usermanagement.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import javax.sql.DataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.jihan.springboot.usermanagement.security.SessionUser;
+
+/**
+ * Two repositories over one database behave like two nodes: sessions, attribute
+ * changes and the concurrent session limit are shared, while touch-only updates
+ * are batched.
+ */
+@SpringBootTest(properties = {
+		"app.session.store=jdbc",
+		"spring.sql.init.schema-locations=classpath:sql/http-sessions.sql"
+})
+@ActiveProfiles("test")
+class JdbcSessionRepositoryTest {
+
+	@Autowired
+	private JdbcSessionRepository nodeA;
+
+	@Autowired
+	private SessionRegistry sessionRegistry;
+
+	@Autowired
+	private DataSource dataSource;
+
+	private JdbcSessionRepository nodeB;
+
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void startSecondNode() {
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		nodeB = new JdbcSessionRepository(jdbcTemplate, Duration.ofMinutes(30), 100, Duration.ofSeconds(1),
+				getClass().getClassLoader(), new SimpleMeterRegistry());
+	}
+
+	@Test
+	void sessionSavedOnOneNodeIsReadOnAnother() {
+		JdbcSession session = nodeA.createSession();
+		session.setAttribute(SessionUser.SESSION_ATTRIBUTE, new SessionUser(1L, "alice", "Alice Doe", 1L));
+		nodeA.save(session);
+
+		JdbcSession found = nodeB.findById(session.getId());
+
+		assertThat(found).isNotNull();
+		assertThat(found.<SessionUser>getAttribute(SessionUser.SESSION_ATTRIBUTE).getDisplayName()).isEqualTo("Alice Doe");
+	}
+
+	@Test
+	void attributeChangeOnOneNodeReplacesTheOtherNodesCachedCopy() {
+		JdbcSession session = nodeA.createSession();
+		session.setAttribute("step", 1);
+		nodeA.save(session);
+		assertThat(nodeB.findById(session.getId()).<Integer>getAttribute("step")).isEqualTo(1);
+
+		JdbcSession onA = nodeA.findById(session.getId());
+		onA.setAttribute("step", 2);
+		nodeA.save(onA);
+
+		assertThat(nodeB.findById(session.getId()).<Integer>getAttribute("step")).isEqualTo(2);
+	}
+
+	@Test
+	void touchOnlyUpdatesAreWrittenInBatches() {
+		JdbcSession session = nodeA.createSession();
+		nodeA.save(session);
+		long stored = storedLastAccess(session.getId());
+
+		JdbcSession touched = nodeA.findById(session.getId());
+		Instant later = touched.getLastAccessedTime().plus(5, ChronoUnit.SECONDS);
+		touched.setLastAccessedTime(later);
+		nodeA.save(touched);
+
+		assertThat(storedLastAccess(session.getId())).isEqualTo(stored);
+		assertThat(nodeA.findById(session.getId()).getLastAccessedTime()).isEqualTo(later);
+
+		nodeA.flushLastAccessTimes();
+
+		assertThat(storedLastAccess(session.getId())).isEqualTo(later.toEpochMilli());
+	}
+
+	@Test
+	void concurrentSessionLimitSeesSessionsOfEveryNode() {
+		JdbcSession first = nodeA.createSession();
+		first.setAttribute(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME, "bob");
+		nodeA.save(first);
+		JdbcSession second = nodeB.createSession();
+		second.setAttribute(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME, "bob");
+		nodeB.save(second);
+
+		assertThat(sessionRegistry.getAllSessions("bob", false)).hasSize(2);
+
+		sessionRegistry.getSessionInformation(second.getId()).expireNow();
+
+		assertThat(sessionRegistry.getSessionInformation(second.getId()).isExpired()).isTrue();
+		assertThat(sessionRegistry.getAllSessions("bob", false)).hasSize(1);
+	}
+
+	@Test
+	void expiredSessionsAreNotReturnedAndGetDeleted() {
+		JdbcSession session = nodeA.createSession();
+		session.setMaxInactiveInterval(Duration.ofMinutes(1));
+		session.setLastAccessedTime(Instant.now().minus(Duration.ofHours(1)));
+		nodeA.save(session);
+
+		assertThat(nodeB.findById(session.getId())).isNull();
+
+		nodeA.deleteExpiredSessions();
+
+		assertThat(jdbcTemplate.queryForObject("select count(*) from http_sessions where session_id = ?",
+				Integer.class, session.getId())).isZero();
+	}
+
+	private long storedLastAccess(String id) {
+		return jdbcTemplate.queryForObject("select last_access_time from http_sessions where session_id = ?",
+				Long.class, id);
+	}
+}
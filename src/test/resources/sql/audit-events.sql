@@ -0,0 +1,13 @@
+-- H2 version of sql-scripts/migrations/005-audit-events.sql
+CREATE TABLE audit_events (
+    id BIGINT GENERATED ALWAYS AS IDENTITY,
+    occurred_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    principal_name VARCHAR(100),
+    remote_address VARCHAR(45),
+    detail VARCHAR(255),
+    CONSTRAINT pk_audit_events PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_audit_events_principal_time ON audit_events(principal_name, occurred_at);
+CREATE INDEX idx_audit_events_occurred_at ON audit_events(occurred_at);
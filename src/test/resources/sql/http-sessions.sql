@@ -0,0 +1,15 @@
+-- H2 version of sql-scripts/migrations/004-http-sessions.sql
+CREATE TABLE http_sessions (
+    session_id VARCHAR(36) NOT NULL,
+    revision BIGINT NOT NULL,
+    principal_name VARCHAR(100),
+    creation_time BIGINT NOT NULL,
+    last_access_time BIGINT NOT NULL,
+    max_inactive_seconds INT NOT NULL,
+    expiry_time BIGINT NOT NULL,
+    attributes VARBINARY NOT NULL,
+    CONSTRAINT pk_http_sessions PRIMARY KEY (session_id)
+);
+
+CREATE INDEX idx_http_sessions_principal_name ON http_sessions(principal_name);
+CREATE INDEX idx_http_sessions_expiry_time ON http_sessions(expiry_time);
@@ -0,0 +1,3 @@
+INSERT INTO roles (id, name) VALUES (NEXT VALUE FOR roles_id_seq, 'ROLE_EMPLOYEE');
+INSERT INTO roles (id, name) VALUES (NEXT VALUE FOR roles_id_seq, 'ROLE_MANAGER');
+INSERT INTO roles (id, name) VALUES (NEXT VALUE FOR roles_id_seq, 'ROLE_ADMIN');